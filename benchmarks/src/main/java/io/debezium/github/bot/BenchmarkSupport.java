@@ -0,0 +1,170 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.kohsuke.github.GHCommitPointer;
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHPullRequestCommitDetail;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.PagedIterable;
+
+import io.debezium.github.bot.check.CheckContext;
+import io.debezium.github.bot.check.OutputTemplates;
+import io.debezium.github.bot.client.GitHubCall;
+import io.debezium.github.bot.client.GitHubCallScheduler;
+import io.debezium.github.bot.client.Priority;
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.util.IssueKeyMatcher;
+
+/**
+ * Builds stubbed GitHub model objects and bot components for benchmarks, without any network access.
+ *
+ * @author Chris Cranford
+ */
+public final class BenchmarkSupport {
+
+    private static final String SUBJECT = "Fix handling of the snapshot boundary when the connector restarts";
+    private static final String BODY = "\n\nThe connector previously re-emitted the last snapshot chunk after a restart.\n"
+            + "This change records the chunk boundary in the offsets so that it can be resumed.\n\n"
+            + "Related to the discussion in DBZ-1 and follow-up to the previous fix.\n";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Creates a deployment configuration with the application defaults.
+     *
+     * @return the configuration; never null
+     */
+    public static DeploymentConfig deploymentConfig() {
+        DeploymentConfig config = mock(DeploymentConfig.class);
+        when(config.isDryRun()).thenReturn(true);
+        when(config.getJiraUrl()).thenReturn("https://issues.redhat.com/browse/");
+        when(config.getUserName()).thenReturn("debezium-github-bot");
+        when(config.getIssueKeyProjects()).thenReturn(List.of("DBZ"));
+        when(config.isIssueKeyMatchAnywhere()).thenReturn(false);
+        when(config.isJiraLookupEnabled()).thenReturn(false);
+        when(config.getCheckParallelism()).thenReturn(1);
+        when(config.getCheckTimeout()).thenReturn(Duration.ofSeconds(30));
+        when(config.getCheckInProgressDelay()).thenReturn(Duration.ZERO);
+        when(config.getCommitCacheSize()).thenReturn(100_000);
+        when(config.getPullRequestCacheSize()).thenReturn(1_000);
+        return config;
+    }
+
+    /**
+     * Generates synthetic commit messages; every fourth message does not start with an issue key.
+     *
+     * @param count the number of messages
+     * @return the messages; never null
+     */
+    public static List<String> commitMessages(int count) {
+        List<String> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String prefix = i % 4 == 3 ? "" : "DBZ-" + (1000 + i % 50) + " ";
+            messages.add(prefix + SUBJECT + BODY);
+        }
+        return messages;
+    }
+
+    /**
+     * Creates a stubbed pull request whose commits carry the given messages.
+     *
+     * @param title the pull request title
+     * @param body the pull request body
+     * @param messages the commit messages
+     * @return the pull request; never null
+     * @throws IOException never
+     */
+    @SuppressWarnings("unchecked")
+    public static GHPullRequest pullRequest(String title, String body, List<String> messages) throws IOException {
+        List<GHPullRequestCommitDetail> commits = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            GHPullRequestCommitDetail.Commit commit = mock(GHPullRequestCommitDetail.Commit.class);
+            when(commit.getMessage()).thenReturn(messages.get(i));
+            GHPullRequestCommitDetail detail = mock(GHPullRequestCommitDetail.class);
+            when(detail.getSha()).thenReturn(String.format("%040x", i));
+            when(detail.getCommit()).thenReturn(commit);
+            commits.add(detail);
+        }
+
+        PagedIterable<GHPullRequestCommitDetail> iterable = mock(PagedIterable.class);
+        when(iterable.withPageSize(anyInt())).thenReturn(iterable);
+        when(iterable.toList()).thenReturn(commits);
+
+        GHCommitPointer head = mock(GHCommitPointer.class);
+        when(head.getSha()).thenReturn(String.format("%040x", messages.size()));
+
+        GHPullRequest pullRequest = mock(GHPullRequest.class);
+        when(pullRequest.getNumber()).thenReturn(1);
+        when(pullRequest.getTitle()).thenReturn(title);
+        when(pullRequest.getBody()).thenReturn(body);
+        when(pullRequest.getHead()).thenReturn(head);
+        when(pullRequest.listCommits()).thenReturn(iterable);
+        return pullRequest;
+    }
+
+    /**
+     * Creates a check context for a stubbed pull request; github calls are invoked directly.
+     *
+     * @param config the deployment configuration
+     * @param pullRequest the pull request
+     * @return the context; never null
+     */
+    public static CheckContext context(DeploymentConfig config, GHPullRequest pullRequest) {
+        GHRepository repository = mock(GHRepository.class);
+        when(repository.getId()).thenReturn(1L);
+        return new CheckContext(config, new DirectScheduler(), null, repository, pullRequest, null, null, OutputTemplates.DEFAULT);
+    }
+
+    /**
+     * Creates a Jira check with empty caches and without Jira lookups.
+     *
+     * @param config the deployment configuration
+     * @return the check; never null
+     */
+    public static JiraIssueCheck jiraIssueCheck(DeploymentConfig config) {
+        CommitIssueKeyCache cache = new CommitIssueKeyCache();
+        cache.deploymentConfig = config;
+        cache.initialize();
+        return new JiraIssueCheck(config, cache, new IssueKeyMatcher(config.getIssueKeyProjects()), null);
+    }
+
+    /**
+     * Creates the pull request title check.
+     *
+     * @return the check; never null
+     */
+    public static PullRequestTitleCheck pullRequestTitleCheck() {
+        return new PullRequestTitleCheck();
+    }
+
+    /**
+     * A scheduler that performs calls directly, without admission control or metrics.
+     */
+    private static class DirectScheduler extends GitHubCallScheduler {
+
+        @Override
+        public <T> T call(GitHub github, Priority priority, String operation, GitHubCall<T> call) throws IOException {
+            return call.call();
+        }
+
+        @Override
+        public <T> List<T> list(GitHub github, Priority priority, String operation, PagedIterable<T> iterable) throws IOException {
+            return iterable.withPageSize(PAGE_SIZE).toList();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.kohsuke.github.GHPullRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.debezium.github.bot.check.CheckContext;
+import io.debezium.github.bot.check.CheckRunOutput;
+import io.debezium.github.bot.check.CheckRunOutputs;
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.util.CommitMessageRules;
+import io.debezium.github.bot.util.IssueKeyMatcher;
+
+/**
+ * Measures {@link CommitMessageCheck} with a full rule set over synthetic commit histories.
+ *
+ * @author Chris Cranford
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CommitMessageCheckBenchmark {
+
+    private static final List<String> RULES = List.of("subject-max-length=72", "blank-second-line", "issue-key-prefix",
+            "forbid-prefix=fixup!", "forbid-prefix=squash!", "forbid-pattern=(?i)\\bwip\\b");
+
+    @Param({ "10", "100", "1000", "10000" })
+    int commits;
+
+    private List<String> messages;
+    private CommitMessageRules rules;
+    private CommitMessageCheck check;
+    private CheckContext context;
+
+    @Setup
+    public void setup() throws IOException {
+        DeploymentConfig config = BenchmarkSupport.deploymentConfig();
+        messages = BenchmarkSupport.commitMessages(commits);
+        rules = CommitMessageRules.compile(RULES, new IssueKeyMatcher(config.getIssueKeyProjects()), "DBZ-XXXX");
+        check = new CommitMessageCheck(rules);
+        GHPullRequest pullRequest = BenchmarkSupport.pullRequest("DBZ-1000 Fix snapshot boundary", "Fixes DBZ-1001", messages);
+        context = BenchmarkSupport.context(config, pullRequest);
+    }
+
+    /**
+     * Evaluating all rules, one commit message after the other.
+     */
+    @Benchmark
+    public void evaluate(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(rules.evaluate(message));
+        }
+    }
+
+    /**
+     * A complete run of the check, including reporting the offending commits of each rule.
+     */
+    @Benchmark
+    public CheckRunOutput run() throws IOException {
+        CheckRunOutput output = CheckRunOutputs.create("Commit Messages");
+        check.run(context, output);
+        return output;
+    }
+}
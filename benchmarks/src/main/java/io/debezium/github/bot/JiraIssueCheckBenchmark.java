@@ -0,0 +1,106 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.kohsuke.github.GHPullRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.debezium.github.bot.check.CheckContext;
+import io.debezium.github.bot.check.CheckRunOutput;
+import io.debezium.github.bot.check.CheckRunOutputs;
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.util.IssueKeyMatcher;
+
+/**
+ * Measures issue key extraction of {@link JiraIssueCheck} over synthetic commit histories.
+ *
+ * @author Chris Cranford
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JiraIssueCheckBenchmark {
+
+    @Param({ "10", "100", "1000", "10000" })
+    int commits;
+
+    private DeploymentConfig config;
+    private List<String> messages;
+    private JiraIssueCheck check;
+    private CheckContext context;
+    private IssueKeyMatcher matcher;
+
+    @Setup
+    public void setup() throws IOException {
+        config = BenchmarkSupport.deploymentConfig();
+        messages = BenchmarkSupport.commitMessages(commits);
+        check = BenchmarkSupport.jiraIssueCheck(config);
+        matcher = new IssueKeyMatcher(List.of("DBZ", "DBZUI", "DBZTOOLS"));
+        GHPullRequest pullRequest = BenchmarkSupport.pullRequest("DBZ-1000 Fix snapshot boundary", "Fixes DBZ-1001", messages);
+        context = BenchmarkSupport.context(config, pullRequest);
+    }
+
+    /**
+     * Matching only, one commit message after the other.
+     */
+    @Benchmark
+    public void extractIssueKeys(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(check.extractIssueKeys(message));
+        }
+    }
+
+    /**
+     * Collecting every issue key of each commit message, as done when keys are matched anywhere.
+     */
+    @Benchmark
+    public void findAllIssueKeys(Blackhole blackhole) {
+        for (String message : messages) {
+            List<String> keys = new ArrayList<>();
+            matcher.findAll(message, keys);
+            blackhole.consume(keys);
+        }
+    }
+
+    /**
+     * A complete run of the check on a pull request it has not seen before, i.e. all caches are cold.
+     */
+    @Benchmark
+    public CheckRunOutput runWithColdCaches() throws IOException {
+        CheckRunOutput output = CheckRunOutputs.create("JIRA");
+        BenchmarkSupport.jiraIssueCheck(config).run(context, output);
+        return output;
+    }
+
+    /**
+     * A run of the check for an event that did not push new commits, i.e. the pull request was edited.
+     */
+    @Benchmark
+    public CheckRunOutput runWithWarmCaches() throws IOException {
+        CheckRunOutput output = CheckRunOutputs.create("JIRA");
+        check.run(context, output);
+        return output;
+    }
+}
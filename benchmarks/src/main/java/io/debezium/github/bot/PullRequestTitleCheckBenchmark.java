@@ -0,0 +1,60 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.debezium.github.bot.check.CheckContext;
+import io.debezium.github.bot.check.CheckRunOutput;
+import io.debezium.github.bot.check.CheckRunOutputs;
+
+/**
+ * Measures {@link PullRequestTitleCheck} on short and long titles.
+ *
+ * @author Chris Cranford
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PullRequestTitleCheckBenchmark {
+
+    @Param({ "DBZ-1234 Fix", "DBZ-1234 Support incremental snapshots for tables without a primary key when using the signal table..." })
+    String title;
+
+    private PullRequestTitleCheck check;
+    private CheckContext context;
+
+    @Setup
+    public void setup() throws IOException {
+        check = BenchmarkSupport.pullRequestTitleCheck();
+        context = BenchmarkSupport.context(BenchmarkSupport.deploymentConfig(),
+                BenchmarkSupport.pullRequest(title, "", Collections.emptyList()));
+    }
+
+    @Benchmark
+    public CheckRunOutput run() throws IOException {
+        CheckRunOutput output = CheckRunOutputs.create("Pull Request Title");
+        check.run(context, output);
+        return output;
+    }
+}
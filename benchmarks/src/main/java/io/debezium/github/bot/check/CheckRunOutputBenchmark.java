@@ -0,0 +1,85 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.check;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures rendering of {@link CheckRunOutput} into check run contents and the pull request comment.
+ *
+ * @author Chris Cranford
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CheckRunOutputBenchmark {
+
+    @Param({ "2", "20", "200" })
+    int rules;
+
+    @Param({ "0", "10" })
+    int commentsPerRule;
+
+    @Param({ "false", "true" })
+    boolean sealed;
+
+    private CheckRunOutput output;
+
+    @Setup
+    public void setup() {
+        output = new CheckRunOutput("Benchmark");
+        for (int i = 0; i < rules; i++) {
+            CheckRunRule rule = output.rule("Rule number " + i + " should be satisfied by the pull request");
+            for (int j = 0; j < commentsPerRule; j++) {
+                rule.failed("Offending commit " + String.format("%040x", j) + " - https://issues.redhat.com/browse/DBZ-" + j);
+            }
+            if (i % 2 == 0) {
+                rule.result(true);
+            }
+        }
+        if (sealed) {
+            // As done by a check run once its check completed
+            output.seal();
+        }
+    }
+
+    @Benchmark
+    public String contents() {
+        return output.contents();
+    }
+
+    @Benchmark
+    public StringBuilder appendFailingRules() {
+        StringBuilder builder = new StringBuilder();
+        output.appendFailingRules(builder);
+        return builder;
+    }
+
+    @Benchmark
+    public String title() {
+        return output.title();
+    }
+
+    @Benchmark
+    public boolean passed() {
+        return output.passed();
+    }
+}
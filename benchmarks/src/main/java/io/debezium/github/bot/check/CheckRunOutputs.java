@@ -0,0 +1,27 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.check;
+
+/**
+ * Provides benchmarks access to check outputs, which are otherwise only created by check runs.
+ *
+ * @author Chris Cranford
+ */
+public final class CheckRunOutputs {
+
+    private CheckRunOutputs() {
+    }
+
+    /**
+     * Creates an empty output.
+     *
+     * @param name the check name
+     * @return the output; never null
+     */
+    public static CheckRunOutput create(String name) {
+        return new CheckRunOutput(name);
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.loadtest;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Measures the cold start and the memory footprint of a bot build, i.e. the JVM application or the native
+ * executable.
+ *
+ * Every run starts the bot as a new process against a {@link StubGitHubServer} and measures:
+ *
+ * <ul>
+ *     <li>the time from launching the process until the first webhook delivery is acknowledged</li>
+ *     <li>the time from launching the process until the first event was processed, i.e. its comment written</li>
+ *     <li>the resident set size after replaying the payloads at a fixed rate for a while</li>
+ * </ul>
+ *
+ * Usage:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar io.debezium.github.bot.loadtest.StartupBenchmark \
+ *     --command "java -jar target/quarkus-app/quarkus-app.jar" --private-key /tmp/stub-key.pem \
+ *     --payloads payloads.jsonl --runs 5
+ * </pre>
+ *
+ * The resident set size is read from {@code /proc}, so it is only reported on Linux.
+ *
+ * @author Chris Cranford
+ */
+public class StartupBenchmark {
+
+    // Passed to the bot through the environment, which takes precedence over a secret configured in a .env file
+    private static final String WEBHOOK_SECRET = "startup-benchmark";
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        if (!options.containsKey("command") || !options.containsKey("private-key") || !options.containsKey("payloads")) {
+            System.err.println("Usage: StartupBenchmark --command <bot command line> --private-key <pem file>"
+                    + " --payloads <dir|file.jsonl> [--runs 5] [--port 8080] [--stub-port 8089] [--commits 10]"
+                    + " [--bot-login debezium-github-bot] [--steady-seconds 30] [--rate 10] [--timeout-seconds 60]");
+            System.exit(1);
+        }
+        new StartupBenchmark().run(options);
+    }
+
+    private void run(Map<String, String> options) throws Exception {
+        final List<String> command = Arrays.asList(options.get("command").trim().split("\\s+"));
+        final String privateKey = Files.readString(Path.of(options.get("private-key")));
+        final List<String> payloads = readPayloads(Path.of(options.get("payloads")));
+        final int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        final int port = Integer.parseInt(options.getOrDefault("port", "8080"));
+        final long steadySeconds = Long.parseLong(options.getOrDefault("steady-seconds", "30"));
+        final double rate = Double.parseDouble(options.getOrDefault("rate", "10"));
+        final long timeoutSeconds = Long.parseLong(options.getOrDefault("timeout-seconds", "60"));
+        final URI target = URI.create("http://localhost:" + port + "/");
+
+        final List<Long> acknowledged = new ArrayList<>();
+        final List<Long> processed = new ArrayList<>();
+        final List<Long> residentSizes = new ArrayList<>();
+
+        try (StubGitHubServer stub = new StubGitHubServer(
+                Integer.parseInt(options.getOrDefault("stub-port", "8089")), 0L, 1_000_000L,
+                Integer.parseInt(options.getOrDefault("commits", "10")),
+                options.getOrDefault("bot-login", "debezium-github-bot"))) {
+
+            final AtomicLong firstComment = new AtomicLong();
+            stub.onCommentWritten((pullRequest, writtenAt) -> firstComment.compareAndSet(0L, writtenAt));
+            stub.start();
+
+            for (int run = 1; run <= runs; run++) {
+                firstComment.set(0L);
+                final Path work = Files.createTempDirectory("bot-startup");
+                final ProcessBuilder builder = new ProcessBuilder(command)
+                        .redirectErrorStream(true)
+                        .redirectOutput(work.resolve("bot.log").toFile());
+                configure(builder.environment(), stub, privateKey, port, work);
+
+                final long start = System.nanoTime();
+                final Process process = builder.start();
+                try {
+                    final long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+                    acknowledged.add(awaitAcknowledged(target, payloads.get(0), process, deadline) - start);
+                    while (firstComment.get() == 0L && System.nanoTime() < deadline) {
+                        Thread.sleep(1);
+                    }
+                    if (firstComment.get() == 0L) {
+                        throw new IllegalStateException("The first event was not processed within " + timeoutSeconds + "s");
+                    }
+                    processed.add(firstComment.get() - start);
+
+                    replay(target, payloads, rate, steadySeconds);
+                    final long residentSize = residentSize(process.pid());
+                    if (residentSize > 0) {
+                        residentSizes.add(residentSize);
+                    }
+
+                    System.out.printf("Run %d: first webhook acknowledged after %.1fms, processed after %.1fms, RSS %s%n",
+                            run, acknowledged.get(run - 1) / 1_000_000d, processed.get(run - 1) / 1_000_000d,
+                            residentSize > 0 ? (residentSize / 1024) + "MiB" : "n/a");
+                }
+                finally {
+                    process.destroy();
+                    if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                        process.destroyForcibly();
+                    }
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.printf("First webhook acknowledged: median=%.1fms max=%.1fms%n",
+                median(acknowledged) / 1_000_000d, Collections.max(acknowledged) / 1_000_000d);
+        System.out.printf("First event processed:      median=%.1fms max=%.1fms%n",
+                median(processed) / 1_000_000d, Collections.max(processed) / 1_000_000d);
+        if (!residentSizes.isEmpty()) {
+            System.out.printf("Steady-state RSS:           median=%dMiB max=%dMiB%n",
+                    median(residentSizes) / 1024, Collections.max(residentSizes) / 1024);
+        }
+    }
+
+    /**
+     * Points the bot to the stub server and keeps its state files in the work directory of the run, so that
+     * every run starts cold.
+     */
+    private static void configure(Map<String, String> environment, StubGitHubServer stub, String privateKey, int port, Path work) {
+        environment.put("QUARKUS_HTTP_PORT", String.valueOf(port));
+        environment.put("QUARKUS_GITHUB_APP_INSTANCE_ENDPOINT", "http://localhost:" + stub.getPort());
+        environment.put("QUARKUS_GITHUB_APP_APP_ID", "1");
+        environment.put("QUARKUS_GITHUB_APP_PRIVATE_KEY", privateKey);
+        environment.put("QUARKUS_GITHUB_APP_WEBHOOK_SECRET", WEBHOOK_SECRET);
+        environment.put("DEBEZIUM_GITHUB_BOT_DRY_RUN", "false");
+        environment.put("DEBEZIUM_GITHUB_BOT_EVENT_QUIET_WINDOW", "0S");
+        environment.put("DEBEZIUM_GITHUB_BOT_JIRA_LOOKUP_ENABLED", "false");
+        environment.put("DEBEZIUM_GITHUB_BOT_GRAPHQL_PREFETCH_ENABLED", "false");
+        environment.put("DEBEZIUM_GITHUB_BOT_DELIVERY_DEDUP_TTL", "0S");
+        environment.put("DEBEZIUM_GITHUB_BOT_BACKFILL_ON_STARTUP", "false");
+        environment.put("DEBEZIUM_GITHUB_BOT_JOURNAL_FILE", work.resolve("events.journal").toString());
+        environment.put("DEBEZIUM_GITHUB_BOT_GITHUB_CACHE_DIRECTORY", work.resolve("github-cache").toString());
+    }
+
+    /**
+     * Delivers the payload until the bot acknowledges it.
+     *
+     * @return the time the delivery was acknowledged, in {@link System#nanoTime()} units
+     */
+    private long awaitAcknowledged(URI target, String payload, Process process, long deadline) throws Exception {
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The bot exited with code " + process.exitValue());
+            }
+            try {
+                final HttpResponse<Void> response = client.send(request(target, payload), HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() < 300) {
+                    return System.nanoTime();
+                }
+            }
+            catch (ConnectException e) {
+                // Not listening yet
+            }
+            Thread.sleep(1);
+        }
+        throw new IllegalStateException("No webhook delivery was acknowledged in time");
+    }
+
+    private void replay(URI target, List<String> payloads, double rate, long seconds) throws Exception {
+        final long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        final long start = System.nanoTime();
+        final long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        for (long sent = 0; start + sent * intervalNanos < end; sent++) {
+            final long delay = start + sent * intervalNanos - System.nanoTime();
+            if (delay > 0) {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            }
+            client.sendAsync(request(target, payloads.get((int) (sent % payloads.size()))), HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    private static HttpRequest request(URI target, String payload) {
+        return HttpRequest.newBuilder(target)
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .header("X-GitHub-Event", "pull_request")
+                .header("X-GitHub-Delivery", UUID.randomUUID().toString())
+                .header("X-Hub-Signature-256", "sha256=" + sign(payload))
+                .POST(HttpRequest.BodyPublishers.ofString(payload))
+                .build();
+    }
+
+    private static String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(WEBHOOK_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        }
+        catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Unable to sign the webhook payload", e);
+        }
+    }
+
+    /**
+     * Reads the resident set size of a process.
+     *
+     * @return the resident set size in KiB, or 0 if not available
+     */
+    private static long residentSize(long pid) {
+        final Path status = Path.of("/proc", String.valueOf(pid), "status");
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                    .findFirst()
+                    .orElse(0L);
+        }
+        catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static long median(List<Long> values) {
+        final List<Long> sorted = new ArrayList<>(values);
+        sorted.sort(Comparator.naturalOrder());
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static List<String> readPayloads(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.list(path)) {
+                List<String> payloads = new ArrayList<>();
+                for (Path file : files.filter(f -> f.toString().endsWith(".json")).sorted().collect(Collectors.toList())) {
+                    payloads.add(Files.readString(file));
+                }
+                return payloads;
+            }
+        }
+        try (Stream<String> lines = Files.lines(path)) {
+            return lines.filter(line -> !line.isBlank()).collect(Collectors.toList());
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
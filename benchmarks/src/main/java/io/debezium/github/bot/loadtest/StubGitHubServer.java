@@ -0,0 +1,287 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A minimal stub of the GitHub REST API answering the calls the bot makes while handling pull request events:
+ * installation tokens, commits, comparisons, check runs and issue comments.
+ *
+ * Every response carries rate limit headers derived from a configurable quota, and can be delayed by a fixed
+ * latency to emulate GitHub response times. All requests are counted per operation, and comment writes are
+ * reported to a listener so that the harness can measure end-to-end latency.
+ *
+ * @author Chris Cranford
+ */
+public class StubGitHubServer implements AutoCloseable {
+
+    private static final Pattern INSTALLATION = Pattern.compile("/app/installations/(\\d+)(/access_tokens)?");
+    private static final Pattern PULL_COMMITS = Pattern.compile("/repos/[^/]+/[^/]+/pulls/(\\d+)/commits");
+    private static final Pattern PULL = Pattern.compile("/repos/[^/]+/[^/]+/pulls/(\\d+)");
+    private static final Pattern COMPARE = Pattern.compile("/repos/[^/]+/[^/]+/compare/.+");
+    private static final Pattern CHECK_RUNS = Pattern.compile("/repos/[^/]+/[^/]+/check-runs(/\\d+)?");
+    private static final Pattern ISSUE_COMMENTS = Pattern.compile("/repos/[^/]+/[^/]+/issues/(\\d+)/comments");
+    private static final Pattern COMMENT = Pattern.compile("/repos/[^/]+/[^/]+/issues/comments/(\\d+)");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMillis;
+    private final int commitsPerPullRequest;
+    private final String botLogin;
+    private final AtomicLong remainingQuota;
+    private final long quotaLimit;
+    private final long quotaReset = Instant.now().plusSeconds(3600).getEpochSecond();
+
+    private final AtomicLong ids = new AtomicLong(1000);
+    private final ConcurrentMap<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, ObjectNode> comments = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Integer> commentPullRequests = new ConcurrentHashMap<>();
+    private volatile BiConsumer<Integer, Long> commentListener = (pullRequest, nanos) -> {
+    };
+
+    /**
+     * Creates the stub server; call {@link #start()} to accept requests.
+     *
+     * @param port the port to listen on, 0 for any free port
+     * @param latencyMillis the latency added to every response
+     * @param quota the rate limit quota reported to the bot
+     * @param commitsPerPullRequest the number of commits returned per pull request
+     * @param botLogin the login the bot comments with
+     * @throws IOException if the server cannot be bound
+     */
+    public StubGitHubServer(int port, long latencyMillis, long quota, int commitsPerPullRequest, String botLogin) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 256);
+        this.executor = Executors.newFixedThreadPool(64);
+        this.latencyMillis = latencyMillis;
+        this.quotaLimit = quota;
+        this.remainingQuota = new AtomicLong(quota);
+        this.commitsPerPullRequest = commitsPerPullRequest;
+        this.botLogin = botLogin;
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Sets the listener notified with the pull request number and time of every comment write.
+     *
+     * @param listener the listener; must not be null
+     */
+    public void onCommentWritten(BiConsumer<Integer, Long> listener) {
+        this.commentListener = listener;
+    }
+
+    /**
+     * Get the number of requests received per operation.
+     *
+     * @return the request counts; never null
+     */
+    public Map<String, Integer> getRequestCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        requests.forEach((operation, count) -> counts.put(operation, count.get()));
+        return counts;
+    }
+
+    public int getTotalRequests() {
+        return requests.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            final String method = exchange.getRequestMethod();
+            final String path = exchange.getRequestURI().getPath();
+            final JsonNode request = readBody(exchange.getRequestBody());
+
+            Matcher matcher;
+            if ((matcher = INSTALLATION.matcher(path)).matches()) {
+                count("installation");
+                ObjectNode node = mapper.createObjectNode();
+                if (matcher.group(2) != null) {
+                    node.put("token", "stub-installation-token");
+                    node.put("expires_at", Instant.now().plusSeconds(3600).toString());
+                    respond(exchange, 201, node);
+                }
+                else {
+                    node.put("id", Long.parseLong(matcher.group(1)));
+                    node.put("access_tokens_url", baseUrl() + path + "/access_tokens");
+                    respond(exchange, 200, node);
+                }
+            }
+            else if ("/app".equals(path)) {
+                count("app");
+                ObjectNode node = mapper.createObjectNode();
+                node.put("id", 1);
+                node.put("slug", botLogin);
+                respond(exchange, 200, node);
+            }
+            else if ((matcher = PULL_COMMITS.matcher(path)).matches()) {
+                count("listCommits");
+                respond(exchange, 200, commits(Integer.parseInt(matcher.group(1))));
+            }
+            else if ((matcher = PULL.matcher(path)).matches()) {
+                count("getPullRequest");
+                ObjectNode node = mapper.createObjectNode();
+                node.put("number", Integer.parseInt(matcher.group(1)));
+                node.put("state", "open");
+                respond(exchange, 200, node);
+            }
+            else if (COMPARE.matcher(path).matches()) {
+                count("getCompare");
+                ObjectNode node = mapper.createObjectNode();
+                node.put("status", "ahead");
+                node.put("total_commits", 0);
+                node.putArray("commits");
+                respond(exchange, 200, node);
+            }
+            else if ((matcher = CHECK_RUNS.matcher(path)).matches()) {
+                final boolean update = matcher.group(1) != null;
+                count(update ? "updateCheckRun" : "createCheckRun");
+                ObjectNode node = mapper.createObjectNode();
+                node.put("id", update ? Long.parseLong(matcher.group(1).substring(1)) : ids.incrementAndGet());
+                node.put("name", request.path("name").asText("check"));
+                node.put("status", request.path("status").asText("completed"));
+                respond(exchange, update ? 200 : 201, node);
+            }
+            else if ((matcher = ISSUE_COMMENTS.matcher(path)).matches()) {
+                final int pullRequest = Integer.parseInt(matcher.group(1));
+                if ("POST".equals(method)) {
+                    count("createComment");
+                    final long id = ids.incrementAndGet();
+                    ObjectNode comment = comment(id, request.path("body").asText());
+                    comments.put(id, comment);
+                    commentPullRequests.put(id, pullRequest);
+                    commentListener.accept(pullRequest, System.nanoTime());
+                    respond(exchange, 201, comment);
+                }
+                else {
+                    count("listComments");
+                    ArrayNode array = mapper.createArrayNode();
+                    commentPullRequests.forEach((id, number) -> {
+                        if (number == pullRequest) {
+                            array.add(comments.get(id));
+                        }
+                    });
+                    respond(exchange, 200, array);
+                }
+            }
+            else if ((matcher = COMMENT.matcher(path)).matches()) {
+                final long id = Long.parseLong(matcher.group(1));
+                final ObjectNode comment = comments.get(id);
+                if (comment == null) {
+                    count("comment-not-found");
+                    respond(exchange, 404, mapper.createObjectNode().put("message", "Not Found"));
+                }
+                else if ("PATCH".equals(method)) {
+                    count("updateComment");
+                    comment.put("body", request.path("body").asText());
+                    commentListener.accept(commentPullRequests.get(id), System.nanoTime());
+                    respond(exchange, 200, comment);
+                }
+                else {
+                    count("getComment");
+                    respond(exchange, 200, comment);
+                }
+            }
+            else {
+                count("unknown " + method + " " + path);
+                respond(exchange, 404, mapper.createObjectNode().put("message", "Not Found"));
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private ArrayNode commits(int pullRequest) {
+        ArrayNode array = mapper.createArrayNode();
+        for (int i = 0; i < Math.min(commitsPerPullRequest, 100); i++) {
+            ObjectNode node = array.addObject();
+            node.put("sha", String.format("%020x%020x", pullRequest, i));
+            node.putObject("commit").put("message", (i % 4 == 3 ? "" : "DBZ-" + (1000 + i) + " ") + "Synthetic commit " + i);
+        }
+        return array;
+    }
+
+    private ObjectNode comment(long id, String body) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("id", id);
+        node.put("body", body);
+        node.putObject("user").put("login", botLogin + "[bot]");
+        return node;
+    }
+
+    private JsonNode readBody(InputStream stream) throws IOException {
+        byte[] bytes = stream.readAllBytes();
+        return bytes.length == 0 ? mapper.createObjectNode() : mapper.readTree(bytes);
+    }
+
+    private void respond(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        final long remaining = Math.max(0, remainingQuota.decrementAndGet());
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("X-RateLimit-Limit", String.valueOf(quotaLimit));
+        exchange.getResponseHeaders().add("X-RateLimit-Remaining", String.valueOf(remaining));
+        exchange.getResponseHeaders().add("X-RateLimit-Reset", String.valueOf(quotaReset));
+        exchange.getResponseHeaders().add("X-RateLimit-Used", String.valueOf(quotaLimit - remaining));
+        exchange.getResponseHeaders().add("X-RateLimit-Resource", "core");
+
+        final byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private void count(String operation) {
+        requests.computeIfAbsent(operation, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + getPort();
+    }
+}
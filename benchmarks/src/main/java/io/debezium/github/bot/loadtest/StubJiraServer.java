@@ -0,0 +1,136 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.loadtest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A minimal stub of the Jira search REST API used by the bot to resolve issue keys.
+ *
+ * Issues are derived from their number: numbers of 900000 and above do not exist, numbers divisible by ten
+ * are closed and all other issues are open. Responses can be delayed by a fixed latency to exercise the lookup
+ * timeout of the bot.
+ *
+ * @author Chris Cranford
+ */
+public class StubJiraServer implements AutoCloseable {
+
+    private static final Pattern KEY = Pattern.compile("([A-Z][A-Z0-9_]*)-(\\d+)");
+    private static final long MISSING_THRESHOLD = 900_000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMillis;
+    private final AtomicInteger searches = new AtomicInteger();
+
+    /**
+     * Creates the stub server; call {@link #start()} to accept requests.
+     *
+     * @param port the port to listen on, 0 for any free port
+     * @param latencyMillis the latency added to every response
+     * @throws IOException if the server cannot be bound
+     */
+    public StubJiraServer(int port, long latencyMillis) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 64);
+        this.executor = Executors.newFixedThreadPool(8);
+        this.latencyMillis = latencyMillis;
+        this.server.setExecutor(executor);
+        this.server.createContext("/rest/api/2/search", this::search);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Get the number of searches received.
+     *
+     * @return the number of searches
+     */
+    public int getSearches() {
+        return searches.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void search(HttpExchange exchange) throws IOException {
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            searches.incrementAndGet();
+
+            final String query = exchange.getRequestURI().getRawQuery();
+            final String jql = query != null ? parameter(query, "jql") : "";
+
+            ObjectNode response = mapper.createObjectNode();
+            ArrayNode issues = response.putArray("issues");
+            ArrayNode warnings = response.putArray("warningMessages");
+            Matcher matcher = KEY.matcher(jql);
+            while (matcher.find()) {
+                final long number = Long.parseLong(matcher.group(2));
+                if (number >= MISSING_THRESHOLD) {
+                    warnings.add("An issue with key '" + matcher.group() + "' does not exist for field 'key'.");
+                    continue;
+                }
+                final boolean closed = number % 10 == 0;
+                ObjectNode issue = issues.addObject();
+                issue.put("key", matcher.group());
+                ObjectNode status = issue.putObject("fields").putObject("status");
+                status.put("name", closed ? "Closed" : "Open");
+                status.putObject("statusCategory").put("key", closed ? "done" : "new");
+            }
+            response.put("total", issues.size());
+
+            final byte[] bytes = mapper.writeValueAsBytes(response);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private static String parameter(String query, String name) {
+        for (String pair : query.split("&")) {
+            final int separator = pair.indexOf('=');
+            if (separator > 0 && pair.substring(0, separator).equals(name)) {
+                return URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return "";
+    }
+}
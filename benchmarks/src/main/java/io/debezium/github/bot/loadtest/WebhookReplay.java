@@ -0,0 +1,262 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Replays recorded {@code pull_request} webhook payloads against a running bot at a controlled rate while a
+ * {@link StubGitHubServer} answers the bot's GitHub API calls.
+ *
+ * Payloads are read from a directory of {@code .json} files or from a JSONL file with one payload per line.
+ * The report includes the achieved event rate, webhook acknowledgement latency, end-to-end latency measured
+ * until the bot writes its comment, and the GitHub API calls made per event.
+ *
+ * Usage:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar io.debezium.github.bot.loadtest.WebhookReplay \
+ *     --payloads payloads.jsonl --target http://localhost:8080/ --rate 20 \
+ *     --stub-port 8089 --latency-ms 50 --quota 5000 --commits 20
+ * </pre>
+ *
+ * The bot must be started with {@code quarkus.github-app.instance-endpoint} pointing to the stub server. When
+ * {@code --jira-port} is given, a {@link StubJiraServer} is started as well, to be used as the bot's
+ * {@code debezium-github-bot.jira-api-url}.
+ *
+ * @author Chris Cranford
+ */
+public class WebhookReplay {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Map<Integer, Queue<Long>> pendingByPullRequest = new ConcurrentHashMap<>();
+    private final Queue<Long> completionLatencies = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> acknowledgementLatencies = new ConcurrentLinkedQueue<>();
+    private final Queue<Integer> failedDeliveries = new ConcurrentLinkedQueue<>();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        if (!options.containsKey("payloads")) {
+            System.err.println("Usage: WebhookReplay --payloads <dir|file.jsonl> [--target http://localhost:8080/] [--rate 10]"
+                    + " [--repeat 1] [--stub-port 8089] [--latency-ms 0] [--quota 5000] [--commits 10]"
+                    + " [--bot-login debezium-github-bot] [--webhook-secret secret] [--drain-seconds 30]"
+                    + " [--jira-port 8090] [--jira-latency-ms 0]");
+            System.exit(1);
+        }
+        new WebhookReplay().run(options);
+    }
+
+    private void run(Map<String, String> options) throws Exception {
+        final List<String> payloads = readPayloads(Path.of(options.get("payloads")));
+        final URI target = URI.create(options.getOrDefault("target", "http://localhost:8080/"));
+        final double rate = Double.parseDouble(options.getOrDefault("rate", "10"));
+        final int repeat = Integer.parseInt(options.getOrDefault("repeat", "1"));
+        final String secret = options.get("webhook-secret");
+        final long drainSeconds = Long.parseLong(options.getOrDefault("drain-seconds", "30"));
+
+        try (StubGitHubServer stub = new StubGitHubServer(
+                Integer.parseInt(options.getOrDefault("stub-port", "8089")),
+                Long.parseLong(options.getOrDefault("latency-ms", "0")),
+                Long.parseLong(options.getOrDefault("quota", "5000")),
+                Integer.parseInt(options.getOrDefault("commits", "10")),
+                options.getOrDefault("bot-login", "debezium-github-bot"))) {
+
+            stub.onCommentWritten(this::commentWritten);
+            stub.start();
+            System.out.println("Stub GitHub API listening on http://localhost:" + stub.getPort());
+
+            StubJiraServer jira = null;
+            if (options.containsKey("jira-port")) {
+                jira = new StubJiraServer(Integer.parseInt(options.get("jira-port")),
+                        Long.parseLong(options.getOrDefault("jira-latency-ms", "0")));
+                jira.start();
+                System.out.println("Stub Jira API listening on http://localhost:" + jira.getPort() + "/");
+            }
+
+            try {
+                final long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+                final long start = System.nanoTime();
+                final List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+                int sent = 0;
+                for (int round = 0; round < repeat; round++) {
+                    for (String payload : payloads) {
+                        final long scheduled = start + sent * intervalNanos;
+                        final long delay = scheduled - System.nanoTime();
+                        if (delay > 0) {
+                            TimeUnit.NANOSECONDS.sleep(delay);
+                        }
+                        deliveries.add(deliver(target, payload, secret));
+                        sent++;
+                    }
+                }
+                CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0])).join();
+                final long sendNanos = System.nanoTime() - start;
+
+                // Wait for the bot to finish processing everything it accepted
+                final long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainSeconds);
+                while (pendingCount() > 0 && System.nanoTime() < drainDeadline) {
+                    Thread.sleep(100);
+                }
+
+                report(sent, sendNanos, stub);
+                if (jira != null) {
+                    System.out.printf("Jira searches:             %d%n", jira.getSearches());
+                }
+            }
+            finally {
+                if (jira != null) {
+                    jira.close();
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<Void> deliver(URI target, String payload, String secret) {
+        final JsonNode node = readTree(payload);
+        final int pullRequest = node.path("pull_request").path("number").asInt();
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(target)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("X-GitHub-Event", "pull_request")
+                .header("X-GitHub-Delivery", UUID.randomUUID().toString())
+                .POST(HttpRequest.BodyPublishers.ofString(payload));
+        if (secret != null) {
+            request.header("X-Hub-Signature-256", "sha256=" + sign(payload, secret));
+        }
+
+        final long sentAt = System.nanoTime();
+        pendingByPullRequest.computeIfAbsent(pullRequest, key -> new ConcurrentLinkedQueue<>()).add(sentAt);
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    acknowledgementLatencies.add(System.nanoTime() - sentAt);
+                    if (error != null || response.statusCode() >= 300) {
+                        failedDeliveries.add(error != null ? -1 : response.statusCode());
+                    }
+                    return null;
+                });
+    }
+
+    private void commentWritten(Integer pullRequest, Long writtenAt) {
+        final Queue<Long> pending = pullRequest != null ? pendingByPullRequest.get(pullRequest) : null;
+        if (pending == null) {
+            return;
+        }
+        // A comment write completes every event of the pull request sent before it, since events may be coalesced
+        Long sentAt;
+        while ((sentAt = pending.peek()) != null && sentAt <= writtenAt) {
+            pending.poll();
+            completionLatencies.add(writtenAt - sentAt);
+        }
+    }
+
+    private int pendingCount() {
+        return pendingByPullRequest.values().stream().mapToInt(Queue::size).sum();
+    }
+
+    private void report(int sent, long sendNanos, StubGitHubServer stub) {
+        final double seconds = sendNanos / 1_000_000_000d;
+        System.out.println();
+        System.out.printf("Events sent:               %d in %.2fs (%.1f events/s)%n", sent, seconds, sent / seconds);
+        System.out.printf("Failed deliveries:         %d%n", failedDeliveries.size());
+        System.out.printf("Acknowledgement latency:   p50=%s p99=%s%n",
+                percentile(acknowledgementLatencies, 50), percentile(acknowledgementLatencies, 99));
+        System.out.printf("Completed events:          %d (%d without an observed comment write)%n",
+                completionLatencies.size(), pendingCount());
+        System.out.printf("End-to-end latency:        p50=%s p99=%s%n",
+                percentile(completionLatencies, 50), percentile(completionLatencies, 99));
+        System.out.printf("GitHub API calls:          %d (%.1f per event)%n",
+                stub.getTotalRequests(), sent > 0 ? stub.getTotalRequests() / (double) sent : 0d);
+        stub.getRequestCounts().forEach((operation, count) -> System.out.printf("    %-22s %d%n", operation, count));
+    }
+
+    private static String percentile(Queue<Long> values, int percentile) {
+        if (values.isEmpty()) {
+            return "n/a";
+        }
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100d * sorted.size()) - 1;
+        return String.format("%.1fms", sorted.get(Math.max(0, index)) / 1_000_000d);
+    }
+
+    private List<String> readPayloads(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.list(path)) {
+                List<String> payloads = new ArrayList<>();
+                for (Path file : files.filter(f -> f.toString().endsWith(".json")).sorted().collect(Collectors.toList())) {
+                    payloads.add(Files.readString(file));
+                }
+                return payloads;
+            }
+        }
+        try (Stream<String> lines = Files.lines(path)) {
+            return lines.filter(line -> !line.isBlank()).collect(Collectors.toList());
+        }
+    }
+
+    private JsonNode readTree(String payload) {
+        try {
+            return mapper.readTree(payload);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("Invalid webhook payload", e);
+        }
+    }
+
+    private static String sign(String payload, String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        }
+        catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Unable to sign the webhook payload", e);
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
@@ -5,10 +5,21 @@
  */
 package io.debezium.github.bot;
 
+import java.util.List;
+
+import org.kohsuke.github.GHFileNotFoundException;
+import org.kohsuke.github.GHIssueState;
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.debezium.github.bot.PullRequestEventJournal.JournalEntry;
+import io.debezium.github.bot.client.GitHubCallScheduler;
+import io.debezium.github.bot.client.Priority;
 import io.debezium.github.bot.config.DeploymentConfig;
+import io.quarkiverse.githubapp.GitHubClientProvider;
 import io.quarkus.runtime.StartupEvent;
 
 import jakarta.enterprise.event.Observes;
@@ -23,13 +34,69 @@ public class BotApplication {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BotApplication.class);
 
+    private static final String REPLAY_ACTION = "replay";
+
     @Inject
     DeploymentConfig deploymentConfig;
 
+    @Inject
+    PullRequestEventJournal journal;
+
+    @Inject
+    PullRequestWorkQueue workQueue;
+
+    @Inject
+    GitHubClientProvider clientProvider;
+
+    @Inject
+    GitHubCallScheduler scheduler;
+
     void init(@Observes StartupEvent startupEvent) {
         LOGGER.info("Debezium GitHub Bot started.");
         if (deploymentConfig.isDryRun()) {
             LOGGER.warn("** Debezium GitHub Bot running in dry-run mode! **");
         }
+
+        final List<JournalEntry> entries = journal.getPendingEntries();
+        if (!entries.isEmpty()) {
+            // Resolving the pull requests requires GitHub calls, which must not delay the startup
+            LOGGER.info("Replaying {} unprocessed event(s) from the event journal.", entries.size());
+            Thread replay = new Thread(() -> entries.forEach(this::replay), "bot-journal-replay");
+            replay.setDaemon(true);
+            replay.start();
+        }
+    }
+
+    /**
+     * Queues an event with the current state of a journaled pull request.
+     *
+     * @param entry the journal entry; must not be null
+     */
+    private void replay(JournalEntry entry) {
+        try {
+            final GitHub gitHub = clientProvider.getInstallationClient(entry.installationId());
+            final GHRepository repository = scheduler.call(gitHub, Priority.NORMAL, "getRepository",
+                    () -> gitHub.getRepositoryById(entry.repositoryId()));
+            final GHPullRequest pullRequest = scheduler.call(gitHub, Priority.NORMAL, "getPullRequest",
+                    () -> repository.getPullRequest(entry.number()));
+
+            // Keep the journaled sequence, so that processing the event acknowledges the entry
+            final PullRequestEvent event = new PullRequestEvent(entry.installationId(), gitHub, repository, pullRequest, REPLAY_ACTION);
+            event.sequence = entry.sequence();
+            if (GHIssueState.CLOSED.equals(pullRequest.getState())) {
+                journal.completed(event);
+            }
+            else {
+                workQueue.submit(event);
+            }
+        }
+        catch (GHFileNotFoundException e) {
+            LOGGER.info("Journaled PR #{} of repository {} no longer exists.", entry.number(), entry.repositoryId());
+            journal.discard(entry);
+        }
+        catch (Exception e) {
+            // Kept in the journal, so that it is replayed again on the next start
+            LOGGER.warn("Unable to replay journaled event for PR #{} of repository {}", entry.number(), entry.repositoryId(), e);
+        }
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.util.LruCache;
+import io.debezium.github.bot.util.PullRequestKey;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Remembers the identifier of the comment the bot added to each pull request, so that the comment
+ * can be fetched directly rather than paging through all pull request comments on every event.
+ * When the comment body written by the bot is known, its fingerprint is kept as well so that an
+ * unchanged comment does not need to be written, once the prefetched snapshot confirmed that the
+ * comment still exists.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class BotCommentCache {
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    private LruCache<PullRequestKey, BotComment> comments;
+
+    @PostConstruct
+    void initialize() {
+        comments = new LruCache<>(deploymentConfig.getPullRequestCacheSize());
+    }
+
+    /**
+     * Get the bot comment on a pull request.
+     *
+     * @param key the pull request key, must not be null
+     * @return the comment or null if not known
+     */
+    BotComment getComment(PullRequestKey key) {
+        return comments.get(key);
+    }
+
+    /**
+     * Records the bot comment on a pull request.
+     *
+     * @param key the pull request key, must not be null
+     * @param commentId the comment identifier
+     * @param fingerprint the fingerprint of the comment body, or null if not known
+     */
+    void putComment(PullRequestKey key, long commentId, String fingerprint) {
+        comments.put(key, new BotComment(commentId, fingerprint));
+    }
+
+    /**
+     * Forgets the bot comment of a pull request, i.e. when the comment was deleted.
+     *
+     * @param key the pull request key, must not be null
+     */
+    void evict(PullRequestKey key) {
+        comments.remove(key);
+    }
+
+    /**
+     * The bot comment on a pull request.
+     *
+     * @param id the comment identifier
+     * @param fingerprint the fingerprint of the comment body, may be null
+     */
+    record BotComment(long id, String fingerprint) {
+    }
+}
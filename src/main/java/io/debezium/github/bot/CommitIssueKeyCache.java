@@ -0,0 +1,109 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.util.LruCache;
+import io.debezium.github.bot.util.PullRequestKey;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Caches the result of scanning commit messages for issue keys.
+ *
+ * Two bounded caches are maintained: the issue key extracted from each commit message keyed by the
+ * commit SHA, and the aggregated scan state of each pull request keyed by the head SHA that was scanned.
+ * Together these allow a synchronize event to only examine the commits appended since the last scan.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class CommitIssueKeyCache {
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    private LruCache<String, CommitIssueKeys> issueKeysByCommit;
+    private LruCache<PullRequestKey, ScanState> scansByPullRequest;
+
+    @PostConstruct
+    void initialize() {
+        issueKeysByCommit = new LruCache<>(deploymentConfig.getCommitCacheSize());
+        scansByPullRequest = new LruCache<>(deploymentConfig.getPullRequestCacheSize());
+    }
+
+    /**
+     * Get the issue keys previously extracted from a commit.
+     *
+     * @param sha the commit SHA, must not be null
+     * @return the issue keys or null if the commit is unknown
+     */
+    CommitIssueKeys getIssueKeys(String sha) {
+        return issueKeysByCommit.get(sha);
+    }
+
+    /**
+     * Records the issue keys extracted from a commit.
+     *
+     * @param sha the commit SHA, must not be null
+     * @param issueKeys the issue keys, must not be null
+     */
+    void putIssueKeys(String sha, CommitIssueKeys issueKeys) {
+        issueKeysByCommit.put(sha, issueKeys);
+    }
+
+    /**
+     * Get the last scan performed for a pull request.
+     *
+     * @param key the pull request key, must not be null
+     * @return the scan state or null if the pull request has not been scanned
+     */
+    ScanState getScan(PullRequestKey key) {
+        return scansByPullRequest.get(key);
+    }
+
+    /**
+     * Records the scan performed for a pull request.
+     *
+     * @param key the pull request key, must not be null
+     * @param scan the scan state, must not be null
+     */
+    void putScan(PullRequestKey key, ScanState scan) {
+        scansByPullRequest.put(key, scan);
+    }
+
+    /**
+     * The issue keys extracted from a single commit message.
+     *
+     * @param issueKeys the issue keys in order of appearance, never null
+     */
+    record CommitIssueKeys(List<String> issueKeys) {
+    }
+
+    /**
+     * The immutable result of scanning all commits of a pull request up to a given head SHA, against a given base SHA.
+     * The commits of the pull request depend on both, as moving the base branch changes the merge base.
+     */
+    static class ScanState {
+
+        final String baseSha;
+        final String headSha;
+        final Set<String> issueKeys;
+
+        ScanState(String baseSha, String headSha, Set<String> issueKeys) {
+            this.baseSha = baseSha;
+            this.headSha = headSha;
+            this.issueKeys = Collections.unmodifiableSet(new LinkedHashSet<>(issueKeys));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import io.debezium.github.bot.check.Check;
+import io.debezium.github.bot.check.CheckContext;
+import io.debezium.github.bot.check.CheckInput;
+import io.debezium.github.bot.check.CheckRunOutput;
+import io.debezium.github.bot.check.CheckRunRule;
+import io.debezium.github.bot.check.PullRequestSnapshot;
+import io.debezium.github.bot.util.CommitMessageRules;
+
+/**
+ * A check that validates the messages of all commits of the pull request against the configured
+ * {@link CommitMessageRules}, such as a maximum subject length or a required issue key prefix.
+ *
+ * The commits are read once from the context, shared with the other checks, and every commit is evaluated
+ * against all rules in a single pass; each rule is reported with the commits that fail it.
+ *
+ * @author Chris Cranford
+ */
+public class CommitMessageCheck extends Check {
+
+    // Lists of offending commits are truncated, as pull requests may have thousands of commits
+    private static final int MAX_OFFENDING_COMMITS = 20;
+    private static final int MAX_SUBJECT_LENGTH = 100;
+
+    private final CommitMessageRules rules;
+
+    CommitMessageCheck(CommitMessageRules rules) {
+        super("Commit Messages");
+        this.rules = rules;
+    }
+
+    @Override
+    public Set<CheckInput> dependsOn() {
+        return EnumSet.of(CheckInput.COMMITS);
+    }
+
+    @Override
+    public void run(CheckContext context, CheckRunOutput output) throws IOException {
+        final int[] failures = new int[rules.size()];
+        final List<List<String>> offendingCommits = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            offendingCommits.add(new ArrayList<>());
+        }
+
+        for (PullRequestSnapshot.Commit commit : context.getCommits()) {
+            long failed = rules.evaluate(commit.message());
+            while (failed != 0) {
+                final int rule = Long.numberOfTrailingZeros(failed);
+                failed &= failed - 1;
+                if (failures[rule]++ < MAX_OFFENDING_COMMITS) {
+                    final String subject = codeSpan(CommitMessageRules.subject(commit.message()));
+                    offendingCommits.get(rule).add("Offending commit " + commit.sha() + " - " + subject);
+                }
+            }
+        }
+
+        for (int i = 0; i < rules.size(); i++) {
+            CheckRunRule rule = output.rule(rules.description(i));
+            if (failures[i] == 0) {
+                rule.passed();
+            }
+            else {
+                final List<String> responses = offendingCommits.get(i);
+                if (failures[i] > MAX_OFFENDING_COMMITS) {
+                    responses.add("... and " + (failures[i] - MAX_OFFENDING_COMMITS) + " more commit(s)");
+                }
+                rule.failed(responses);
+            }
+        }
+    }
+
+    /**
+     * Renders a commit subject as a Markdown code span, so that it is displayed as is rather than mentioning users,
+     * referencing issues or being formatted. Long subjects are truncated.
+     *
+     * @param subject the commit subject; must not be null
+     * @return the code span; never null
+     */
+    static String codeSpan(String subject) {
+        if (subject.isBlank()) {
+            return "(no subject)";
+        }
+
+        String text = subject;
+        if (text.length() > MAX_SUBJECT_LENGTH) {
+            int end = MAX_SUBJECT_LENGTH;
+            if (Character.isHighSurrogate(text.charAt(end - 1))) {
+                end--;
+            }
+            text = text.substring(0, end) + "…";
+        }
+
+        // A code span is delimited by a run of backticks longer than any run it contains
+        int longestRun = 0;
+        int run = 0;
+        for (int i = 0; i < text.length(); i++) {
+            run = text.charAt(i) == '`' ? run + 1 : 0;
+            longestRun = Math.max(longestRun, run);
+        }
+        final String delimiter = "`".repeat(longestRun + 1);
+        // Leading and trailing backticks must be separated from the delimiter
+        final String padding = longestRun > 0 && (text.startsWith("`") || text.endsWith("`")) ? " " : "";
+        return delimiter + padding + text + padding + delimiter;
+    }
+}
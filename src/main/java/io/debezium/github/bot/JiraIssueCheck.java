@@ -7,21 +7,33 @@
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-import org.kohsuke.github.GHPullRequest;
-import org.kohsuke.github.GHPullRequestCommitDetail;
+import org.kohsuke.github.GHCompare;
+import org.kohsuke.github.GHFileNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import io.debezium.github.bot.CommitIssueKeyCache.CommitIssueKeys;
+import io.debezium.github.bot.CommitIssueKeyCache.ScanState;
 import io.debezium.github.bot.check.Check;
 import io.debezium.github.bot.check.CheckContext;
+import io.debezium.github.bot.check.CheckInput;
 import io.debezium.github.bot.check.CheckRunOutput;
 import io.debezium.github.bot.check.CheckRunRule;
+import io.debezium.github.bot.check.PullRequestSnapshot;
+import io.debezium.github.bot.client.Priority;
 import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.jira.JiraClient;
+import io.debezium.github.bot.jira.JiraIssue;
+import io.debezium.github.bot.util.IssueKeyMatcher;
+import io.debezium.github.bot.util.PullRequestKey;
 
 /**
  * Applies Jira-specific rules to the pull request which include:
@@ -29,53 +41,159 @@
  * <ul>
  *     <li>Notify user of issue keys in commits not included in pull request title</li>
  *     <li>Notify user of all issue keys and links to those issues present in the pull request</li>
+ *     <li>Notify user of issue keys that do not exist or refer to resolved issues</li>
  * </ul>
  *
  * @author Chris Cranford
  */
 public class JiraIssueCheck extends Check {
 
-    private final Pattern issueKeyPattern;
+    private static final Logger LOGGER = LoggerFactory.getLogger(JiraIssueCheck.class);
+
+    private final IssueKeyMatcher issueKeyMatcher;
     private final DeploymentConfig deploymentConfig;
+    private final CommitIssueKeyCache commitCache;
+    private final JiraClient jiraClient;
 
-    JiraIssueCheck(DeploymentConfig deploymentConfig) {
+    JiraIssueCheck(DeploymentConfig deploymentConfig, CommitIssueKeyCache commitCache, IssueKeyMatcher issueKeyMatcher, JiraClient jiraClient) {
         super("JIRA");
         this.deploymentConfig = deploymentConfig;
-        this.issueKeyPattern = Pattern.compile(deploymentConfig.getIssueKeyPattern(), Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+        this.commitCache = commitCache;
+        this.issueKeyMatcher = issueKeyMatcher;
+        this.jiraClient = jiraClient;
+    }
+
+    @Override
+    public Set<CheckInput> dependsOn() {
+        return EnumSet.of(CheckInput.TITLE, CheckInput.BODY, CheckInput.COMMITS);
     }
 
     @Override
     public void run(CheckContext context, CheckRunOutput output) throws IOException {
         // Examine commit history to gather issue key state
-        Set<String> issueKeys = new LinkedHashSet<>();
-        Set<String> commitsWithMessageNotStartingWithIssueKey = new LinkedHashSet<>();
-        for (GHPullRequestCommitDetail commitDetails : context.pullRequest.listCommits()) {
-            GHPullRequestCommitDetail.Commit commit = commitDetails.getCommit();
-            String message = commit.getMessage();
-            Matcher commitMessageIssueKeyMatcher = issueKeyPattern.matcher(message);
-            int issueKeyIndex = commitMessageIssueKeyMatcher.find() ? commitMessageIssueKeyMatcher.start() : -1;
-            if (issueKeyIndex == 0) {
-                issueKeys.add(commitMessageIssueKeyMatcher.group());
+        ScanState scan = scanCommits(context);
+
+        // Perform checks
+        issuesAddressed(output, scan.issueKeys);
+        issuesNotMentioned(output, getIssueKeysNotMentionedInTitleBody(context, scan.issueKeys));
+        if (deploymentConfig.isJiraLookupEnabled()) {
+            issuesValid(output, jiraClient.lookup(scan.issueKeys));
+        }
+    }
+
+    /**
+     * Extracts the issue keys from a commit message.
+     *
+     * Only the issue key the message starts with is extracted, unless issue keys are configured to be
+     * matched anywhere, in which case all issue keys of the message are collected in a single pass.
+     *
+     * @param message the commit message, must not be null
+     * @return the issue keys of the message; never null
+     */
+    CommitIssueKeys extractIssueKeys(String message) {
+        if (deploymentConfig.isIssueKeyMatchAnywhere()) {
+            List<String> issueKeys = new ArrayList<>();
+            issueKeyMatcher.findAll(message, issueKeys);
+            return new CommitIssueKeys(issueKeys);
+        }
+        final String leadingKey = issueKeyMatcher.matchStart(message);
+        return new CommitIssueKeys(leadingKey != null ? List.of(leadingKey) : List.of());
+    }
+
+    /**
+     * Gathers the issue key state of all commits in the pull request.
+     *
+     * When the commits were prefetched, they are examined directly. Otherwise, when the pull request was
+     * scanned before against the same base commit and its history was only appended to since, only the new
+     * commits are fetched and examined; otherwise all commits are scanned again. A previous scan is only reused
+     * as is when neither the base nor the head commit changed.
+     *
+     * @param context the context, must not be null
+     * @return the scan state; never null
+     * @throws IOException if an error occurred reading the commits
+     */
+    private ScanState scanCommits(CheckContext context) throws IOException {
+        final PullRequestKey key = PullRequestKey.of(context.repository, context.pullRequest);
+        final String baseSha = context.getBaseSha();
+        final String headSha = context.getHeadSha();
+
+        ScanState previous = commitCache.getScan(key);
+        if (previous != null && previous.baseSha.equals(baseSha) && previous.headSha.equals(headSha)) {
+            // Nothing pushed since the last scan, i.e. the pull request was edited
+            return previous;
+        }
+
+        if (previous != null && previous.baseSha.equals(baseSha) && context.snapshot == null) {
+            ScanState appended = scanAppendedCommits(context, previous, baseSha, headSha);
+            if (appended != null) {
+                commitCache.putScan(key, appended);
+                return appended;
             }
-            else {
-                commitsWithMessageNotStartingWithIssueKey.add(commitDetails.getSha());
+        }
+
+        ScanBuilder builder = new ScanBuilder(null);
+        for (PullRequestSnapshot.Commit commit : context.getCommits()) {
+            builder.add(commit.sha(), commit.message());
+        }
+
+        ScanState scan = builder.build(baseSha, headSha);
+        commitCache.putScan(key, scan);
+        return scan;
+    }
+
+    /**
+     * Scans only the commits added on top of a previously scanned head.
+     *
+     * @return the scan state or null if the history was rewritten and a full scan is required
+     */
+    private ScanState scanAppendedCommits(CheckContext context, ScanState previous, String baseSha, String headSha) throws IOException {
+        final GHCompare compare;
+        try {
+            compare = context.call(Priority.NORMAL, "getCompare", () -> context.repository.getCompare(previous.headSha, headSha));
+        }
+        catch (GHFileNotFoundException e) {
+            // The previous head no longer exists after a force push
+            return null;
+        }
+
+        if (compare.getStatus() != GHCompare.Status.ahead) {
+            return null;
+        }
+
+        GHCompare.Commit[] commits = compare.getCommits();
+        if (commits.length < compare.getTotalCommits()) {
+            // The comparison is truncated by GitHub
+            return null;
+        }
+
+        ScanBuilder builder = new ScanBuilder(previous);
+        for (GHCompare.Commit commit : commits) {
+            if (commit.getParentSHA1s().size() > 1) {
+                // Merging the base branch brings in commits not listed as part of the pull request
+                return null;
             }
+            builder.add(commit.getSHA1(), commit.getCommit().getMessage());
         }
 
-        // Perform checks
-        issuesAddressed(output, issueKeys);
-        // commitStartWithKey(output, commitsWithMessageNotStartingWithIssueKey);
-        issuesNotMentioned(output, getIssueKeysNotMentionedInTitleBody(context.pullRequest, issueKeys));
+        LOGGER.debug("PR #{} - Scanned {} appended commit(s).", context.pullRequest.getNumber(), commits.length);
+        return builder.build(baseSha, headSha);
     }
 
-    private List<String> getIssueKeysNotMentionedInTitleBody(GHPullRequest pullRequest, Set<String> issueKeys) {
-        final String title = pullRequest.getTitle();
-        final String body = pullRequest.getBody();
+    private List<String> getIssueKeysNotMentionedInTitleBody(CheckContext context, Set<String> issueKeys) {
+        final String title = context.getTitle();
+        final String body = context.getBody();
+
+        // Collect the keys mentioned in each text once rather than searching it per key
+        final Set<String> titleKeys = new LinkedHashSet<>();
+        final Set<String> bodyKeys = new LinkedHashSet<>();
+        issueKeyMatcher.findAll(title, titleKeys);
+        issueKeyMatcher.findAll(body, bodyKeys);
+
         return issueKeys.stream().filter(k -> {
-            if (title != null && !title.contains(k)) {
+            if (title != null && !titleKeys.contains(k)) {
                 return true;
             }
-            return body != null && !body.contains(k);
+            return body != null && !bodyKeys.contains(k);
         }).collect(Collectors.toList());
     }
 
@@ -93,18 +211,24 @@ private void issuesNotMentioned(CheckRunOutput output, List<String> issuesNotMen
         }
     }
 
-    private void commitStartWithKey(CheckRunOutput output, Set<String> commitsWithoutIssueKeys) {
-        // todo: disabled for now as a GH action handles this but kept this as an example
-        CheckRunRule commitRule = output.rule("All commit messages should start with DBZ-XXXX issue key");
-        if (commitsWithoutIssueKeys.isEmpty()) {
-            commitRule.passed();
+    private void issuesValid(CheckRunOutput output, Map<String, JiraIssue> issues) {
+        CheckRunRule validRule = output.rule("All issues addressed should exist and be unresolved");
+        List<String> responses = new ArrayList<>();
+        // Issues that could not be resolved are not in the map and are treated as valid
+        for (JiraIssue issue : issues.values()) {
+            if (!issue.exists()) {
+                responses.add("Issue does not exist: " + issue.key());
+            }
+            else if (issue.resolved()) {
+                responses.add("Issue is already " + issue.status() + ": " + getJiraUrlShortAndLongLink(issue.key()));
+            }
+        }
+        if (responses.isEmpty()) {
+            validRule.passed();
         }
         else {
-            List<String> responses = new ArrayList<>();
-            for (String commit : commitsWithoutIssueKeys) {
-                responses.add("Offending commit " + commit);
-            }
-            commitRule.failed(responses);
+            Collections.sort(responses);
+            validRule.failed(responses);
         }
     }
 
@@ -136,4 +260,32 @@ private String getJiraUrl(String issueKey) {
     private String getJiraUrlShortAndLongLink(String issueKey) {
         return getLink(issueKey, getJiraUrl(issueKey)) + " - " + getJiraUrl(issueKey);
     }
+
+    /**
+     * Accumulates scan state, consulting the commit cache before matching a commit message.
+     */
+    private class ScanBuilder {
+
+        private final Set<String> issueKeys = new LinkedHashSet<>();
+
+        ScanBuilder(ScanState previous) {
+            if (previous != null) {
+                issueKeys.addAll(previous.issueKeys);
+            }
+        }
+
+        void add(String sha, String message) {
+            CommitIssueKeys commitKeys = commitCache.getIssueKeys(sha);
+            if (commitKeys == null) {
+                commitKeys = extractIssueKeys(message);
+                commitCache.putIssueKeys(sha, commitKeys);
+            }
+
+            issueKeys.addAll(commitKeys.issueKeys());
+        }
+
+        ScanState build(String baseSha, String headSha) {
+            return new ScanState(baseSha, headSha, issueKeys);
+        }
+    }
 }
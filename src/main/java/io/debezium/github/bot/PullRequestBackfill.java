@@ -0,0 +1,277 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.kohsuke.github.GHAppInstallation;
+import org.kohsuke.github.GHDirection;
+import org.kohsuke.github.GHIssueState;
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHPullRequestQueryBuilder;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.PagedIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.github.bot.client.GitHubCallScheduler;
+import io.debezium.github.bot.client.Priority;
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.metrics.BotMetrics;
+import io.quarkiverse.githubapp.GitHubClientProvider;
+import io.quarkus.runtime.StartupEvent;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Re-checks all open pull requests of every repository the bot is installed in.
+ *
+ * The backfill is enabled with {@code debezium-github-bot.backfill-on-startup} and runs in the background once
+ * the bot started. Open pull requests are streamed one page at a time, oldest first, and every pull request of
+ * a page is submitted to the {@link PullRequestWorkQueue} like webhook events, so that it is processed in the
+ * lane of its pull request rather than concurrently with a live event. At most the configured backfill
+ * parallelism of submitted pull requests are pending at any time. Once a page completes,
+ * the highest processed pull request number of the repository is recorded in a checkpoint file, allowing a
+ * restarted backfill to resume; the checkpoint is removed when the backfill completes.
+ *
+ * The backfill pauses whenever the remaining GitHub API quota drops below the configured floor, so that live
+ * webhook handling always has quota left.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class PullRequestBackfill {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PullRequestBackfill.class);
+
+    private static final String ACTION = "backfill";
+    private static final String REPOSITORY_DONE = "done";
+    private static final long MAX_QUOTA_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    @Inject
+    GitHubClientProvider clientProvider;
+
+    @Inject
+    GitHubCallScheduler scheduler;
+
+    @Inject
+    PullRequestWorkQueue workQueue;
+
+    @Inject
+    BotMetrics metrics;
+
+    private final Properties checkpoint = new Properties();
+
+    private volatile Thread thread;
+    private Semaphore pending;
+
+    void onStart(@Observes StartupEvent startupEvent) {
+        if (deploymentConfig.isBackfillOnStartup()) {
+            thread = new Thread(this::run, "bot-backfill");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        pending = new Semaphore(Math.max(1, deploymentConfig.getBackfillParallelism()));
+
+        final Path checkpointFile = Path.of(deploymentConfig.getBackfillCheckpointFile());
+        try {
+            loadCheckpoint(checkpointFile);
+
+            final GitHub application = clientProvider.getApplicationClient();
+            final List<GHAppInstallation> installations = scheduler.list(application, Priority.LOW, "listInstallations",
+                    application.getApp().listInstallations());
+
+            LOGGER.info("Backfill started for {} installation(s).", installations.size());
+            for (GHAppInstallation installation : installations) {
+                final GitHub gitHub = clientProvider.getInstallationClient(installation.getId());
+                final List<GHRepository> repositories = scheduler.list(gitHub, Priority.LOW, "listRepositories",
+                        gitHub.getInstallation().listRepositories());
+                for (GHRepository repository : repositories) {
+                    backfillRepository(checkpointFile, installation.getId(), gitHub, repository);
+                }
+            }
+
+            Files.deleteIfExists(checkpointFile);
+            LOGGER.info("Backfill completed.");
+        }
+        catch (InterruptedIOException e) {
+            LOGGER.info("Backfill interrupted; it resumes from its checkpoint on the next start.");
+        }
+        catch (Exception e) {
+            LOGGER.error("Backfill failed; it resumes from its checkpoint on the next start.", e);
+        }
+    }
+
+    private void backfillRepository(Path checkpointFile, long installationId, GitHub gitHub, GHRepository repository) throws IOException {
+        final String key = String.valueOf(repository.getId());
+        final String progress = checkpoint.getProperty(key);
+        if (REPOSITORY_DONE.equals(progress)) {
+            LOGGER.debug("Backfill of {} already completed.", repository.getFullName());
+            return;
+        }
+
+        int lastNumber = progress != null ? Integer.parseInt(progress) : 0;
+        LOGGER.info("Backfill of {} started after PR #{}.", repository.getFullName(), lastNumber);
+
+        // Oldest first, so that the checkpoint is the highest number processed
+        final PagedIterator<GHPullRequest> pages = repository.queryPullRequests()
+                .state(GHIssueState.OPEN)
+                .sort(GHPullRequestQueryBuilder.Sort.CREATED)
+                .direction(GHDirection.ASC)
+                .list()
+                .withPageSize(GitHubCallScheduler.PAGE_SIZE)
+                .iterator();
+
+        while (true) {
+            awaitQuota();
+            final List<GHPullRequest> page = scheduler.call(gitHub, Priority.LOW, "listPullRequests",
+                    () -> pages.hasNext() ? pages.nextPage() : null);
+            if (page == null) {
+                break;
+            }
+
+            final List<CompletableFuture<Boolean>> submitted = new ArrayList<>();
+            for (GHPullRequest pullRequest : page) {
+                if (pullRequest.getNumber() > lastNumber) {
+                    submitted.add(submit(new PullRequestEvent(installationId, gitHub, repository, pullRequest, ACTION)));
+                    lastNumber = Math.max(lastNumber, pullRequest.getNumber());
+                }
+            }
+            await(submitted);
+
+            checkpoint.setProperty(key, String.valueOf(lastNumber));
+            storeCheckpoint(checkpointFile);
+        }
+
+        checkpoint.setProperty(key, REPOSITORY_DONE);
+        storeCheckpoint(checkpointFile);
+        LOGGER.info("Backfill of {} completed.", repository.getFullName());
+    }
+
+    /**
+     * Submits a pull request to the work queue once fewer than the configured parallelism of submitted pull
+     * requests are still pending.
+     *
+     * @param event the backfill event; must not be null
+     * @return completed once the event was processed; never null
+     * @throws InterruptedIOException if interrupted while waiting
+     */
+    private CompletableFuture<Boolean> submit(PullRequestEvent event) throws InterruptedIOException {
+        awaitQuota();
+        try {
+            pending.acquire();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for pending backfill pull requests");
+        }
+
+        event.processed.whenComplete((processed, error) -> {
+            pending.release();
+            if (error != null) {
+                // A single failing pull request must not stall the backfill
+                LOGGER.warn("Backfill of {} in {} failed", event, event.repository.getFullName(), error);
+                metrics.backfillProcessed(BotMetrics.OUTCOME_ERROR);
+            }
+            else {
+                metrics.backfillProcessed(processed ? BotMetrics.OUTCOME_SUCCESS : "queue-full");
+            }
+        });
+        workQueue.submit(event);
+        return event.processed;
+    }
+
+    /**
+     * Blocks while the remaining quota is below the configured floor and the quota has not been reset yet.
+     *
+     * @throws InterruptedIOException if interrupted while waiting
+     */
+    private void awaitQuota() throws InterruptedIOException {
+        while (scheduler.getRemainingQuota() < deploymentConfig.getBackfillQuotaFloor()) {
+            final long wait = scheduler.getQuotaResetTime() - System.currentTimeMillis();
+            if (wait <= 0) {
+                // The quota was reset; the next call refreshes the remaining quota
+                return;
+            }
+            LOGGER.info("Backfill paused, {} GitHub API calls remaining; resuming in {}s.",
+                    scheduler.getRemainingQuota(), TimeUnit.MILLISECONDS.toSeconds(wait));
+            try {
+                Thread.sleep(Math.min(wait, MAX_QUOTA_WAIT_MILLIS));
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the GitHub API quota to reset");
+            }
+        }
+    }
+
+    private void await(List<CompletableFuture<Boolean>> submitted) throws InterruptedIOException {
+        for (CompletableFuture<Boolean> processed : submitted) {
+            try {
+                processed.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the backfill pull requests");
+            }
+            catch (ExecutionException e) {
+                // Already reported when the pull request completed
+            }
+        }
+    }
+
+    private void loadCheckpoint(Path file) throws IOException {
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                checkpoint.load(reader);
+            }
+            LOGGER.info("Backfill resuming from checkpoint {}.", file);
+        }
+    }
+
+    private void storeCheckpoint(Path file) throws IOException {
+        final Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        // Write then move, so that a crash never leaves a truncated checkpoint behind
+        final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary)) {
+            checkpoint.store(writer, "Debezium GitHub Bot backfill checkpoint");
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -6,21 +6,27 @@
 package io.debezium.github.bot;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.EnumSet;
+import java.util.Set;
 
 import org.kohsuke.github.GHEventPayload.PullRequest;
-import org.kohsuke.github.GHIssueComment;
 import org.kohsuke.github.GHIssueState;
 import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHPullRequestChanges;
 import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import io.debezium.github.bot.check.Check;
-import io.debezium.github.bot.check.CheckContext;
-import io.debezium.github.bot.check.CheckRunOutput;
+import io.debezium.github.bot.check.CheckInput;
 import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.metrics.BotMetrics;
+import io.debezium.github.bot.metrics.BotTracing;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.quarkiverse.githubapp.GitHubEvent;
 import io.quarkiverse.githubapp.event.PullRequest.Edited;
 import io.quarkiverse.githubapp.event.PullRequest.Opened;
 import io.quarkiverse.githubapp.event.PullRequest.Reopened;
@@ -37,65 +43,133 @@ public class PullRequestContributionHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PullRequestContributionHandler.class);
 
-    private static final String COMMENT_INTRO_PASSED = "Thanks for your pull request!\n\n"
-            + "This pull request appears to follow the contribution rules. :+1:\n";
-    private static final String COMMENT_INTRO_FAILED = "Thanks for your pull request!\n\n"
-            + "This pull request does not follow the contribution rules. Could you please review?\n";
-    private static final String COMMENT_FOOTER = "\n\n---\n\n:robot: This is an auto-generated message.";
+    private static final String ACTION_EDITED = "edited";
+    private static final String ACTION_SYNCHRONIZE = "synchronize";
 
     @Inject
     DeploymentConfig deploymentConfig;
 
+    @Inject
+    PullRequestWorkQueue workQueue;
+
+    @Inject
+    PullRequestEventCoalescer coalescer;
+
+    @Inject
+    PullRequestEventJournal journal;
+
+    @Inject
+    PullRequestRunRegistry runRegistry;
+
+    @Inject
+    WebhookDeduplicator deduplicator;
+
+    @Inject
+    BotMetrics metrics;
+
+    @Inject
+    BotTracing tracing;
+
     /**
      * Handler invoked when a pull request is opened, reopened, edited, or synchronized.
      *
+     * The handler only validates the event and hands it over for asynchronous processing, so that the delivery
+     * is acknowledged without waiting for GitHub. When a quiet window is configured, the event is coalesced with
+     * further events for the same pull request and queued once the window closes; otherwise it is queued
+     * immediately.
+     *
+     * Redeliveries of an accepted event are dropped before the event is journaled or queued. The handler starts
+     * the trace of the event, which its asynchronous processing continues.
+     *
      * @param payload the pull request; never null
+     * @param gitHub the github client of the installation; never null
+     * @param gitHubEvent the webhook delivery; never null
      * @throws IOException if an error occurred
      */
-    void pullRequestEvent(@Opened @Reopened @Edited @Synchronize PullRequest payload) throws IOException {
+    void pullRequestEvent(@Opened @Reopened @Edited @Synchronize PullRequest payload, GitHub gitHub, GitHubEvent gitHubEvent)
+            throws IOException {
         GHRepository repository = payload.getRepository();
         GHPullRequest pullRequest = payload.getPullRequest();
 
         LOGGER.info("Event received for pull request {}.", pullRequest.getNumber());
 
-        if (!shouldCheck(repository, pullRequest)) {
-            return;
+        final Timer.Sample sample = metrics.start();
+        final Span span = tracing.startPullRequestSpan("pullRequestEvent", Context.current(), pullRequest.getNumber(),
+                pullRequest.getHead().getSha());
+        span.setAttribute(BotTracing.ACTION, payload.getAction());
+        if (gitHubEvent.getDeliveryId() != null) {
+            span.setAttribute(BotTracing.DELIVERY_ID, gitHubEvent.getDeliveryId());
         }
+        try (Scope scope = span.makeCurrent()) {
+            if (!shouldCheck(repository, pullRequest)) {
+                return;
+            }
 
-        // Create checks and generate their output
-        List<CheckRunOutput> outputs = createChecksAndRun(new CheckContext(deploymentConfig, repository, pullRequest));
+            PullRequestEvent event = new PullRequestEvent(payload.getInstallation().getId(), gitHub, repository, pullRequest,
+                    payload.getAction(), getChangedInputs(payload));
+            if (deduplicator.isDuplicate(gitHubEvent.getDeliveryId(), event, String.valueOf(pullRequest.getUpdatedAt()))) {
+                LOGGER.info("Dropping duplicate delivery {} for pull request {}.", gitHubEvent.getDeliveryId(), pullRequest.getNumber());
+                return;
+            }
 
-        // Verify if the checks all passed
-        boolean passed = outputs.stream().allMatch(CheckRunOutput::passed);
+            // Processing happens later on another thread, as part of the trace of this delivery
+            event.traceContext = Context.current();
 
-        // Avoid creating noisy comments if the issue is closed.
-        if (GHIssueState.CLOSED.equals(pullRequest.getState())) {
-            return;
-        }
+            // Journal the event first, so that it is processed after a restart even if it is still queued
+            journal.accepted(event);
+
+            // Stop evaluating an older commit right away, rather than once this event is dequeued
+            runRegistry.supersede(event);
 
-        // Generate the comment text
-        StringBuilder message = new StringBuilder(passed ? COMMENT_INTRO_PASSED : COMMENT_INTRO_FAILED);
-        outputs.forEach(output -> output.appendFailingRules(message));
-        message.append(COMMENT_FOOTER);
-
-        // Find the comment that should be modified by the bot; may be null if none exist.
-        GHIssueComment existingComment = findExistingComment(pullRequest);
-        if (!deploymentConfig.isDryRun()) {
-            if (existingComment == null) {
-                // No comment found, add a new comment with the message
-                pullRequest.comment(message.toString());
+            if (deploymentConfig.getEventQuietWindow().isZero()) {
+                workQueue.submit(event);
             }
             else {
-                // Existing comment detected, update the contents
-                existingComment.update(message.toString());
+                coalescer.submit(event);
             }
         }
-        else {
-            // In dry-mode run; while contents to the log instead
-            LOGGER.info("PR #{} - Added comment {}", pullRequest.getNumber(), message.toString());
+        catch (IOException | RuntimeException e) {
+            tracing.failed(span, e);
+            throw e;
+        }
+        finally {
+            span.end();
+            metrics.webhookHandled(sample, payload.getAction());
         }
     }
 
+    /**
+     * Determines the check inputs an event may have changed, so that checks depending on none of them are not
+     * run again.
+     *
+     * @param payload the pull request; never null
+     * @return the changed inputs; never null
+     */
+    private Set<CheckInput> getChangedInputs(PullRequest payload) {
+        if (ACTION_SYNCHRONIZE.equals(payload.getAction())) {
+            // A push only changes the commits, never the title or body
+            return EnumSet.of(CheckInput.COMMITS, CheckInput.FILES);
+        }
+        if (ACTION_EDITED.equals(payload.getAction()) && payload.getChanges() != null) {
+            final GHPullRequestChanges changes = payload.getChanges();
+            final Set<CheckInput> inputs = EnumSet.noneOf(CheckInput.class);
+            if (changes.getTitle() != null) {
+                inputs.add(CheckInput.TITLE);
+            }
+            if (changes.getBody() != null) {
+                inputs.add(CheckInput.BODY);
+            }
+            if (changes.getBase() != null) {
+                // Changing the base branch changes the commits of the pull request
+                inputs.add(CheckInput.COMMITS);
+                inputs.add(CheckInput.FILES);
+            }
+            return inputs;
+        }
+        // Opened and reopened pull requests are checked completely
+        return CheckInput.all();
+    }
+
     /**
      * Check whether the pull request contribution checks should fire.
      *
@@ -108,53 +182,14 @@ void pullRequestEvent(@Opened @Reopened @Edited @Synchronize PullRequest payload
      * @return true if the checks should be executed; false otherwise.
      */
     private boolean shouldCheck(GHRepository repository, GHPullRequest pullRequest) {
-        return !GHIssueState.CLOSED.equals(pullRequest.getState())
-                && repository.getId() == pullRequest.getBase().getRepository().getId();
-    }
-
-    /**
-     * Create all checks and run them.
-     *
-     * @param context the context; never null
-     * @return the list of outputs per check, never null
-     * @throws IOException if an error occurred
-     */
-    private List<CheckRunOutput> createChecksAndRun(CheckContext context) throws IOException {
-        List<Check> checks = createChecks();
-
-        List<CheckRunOutput> outputs = new ArrayList<>();
-        for (Check check : checks) {
-            outputs.add(Check.run(context, check));
+        if (GHIssueState.CLOSED.equals(pullRequest.getState())) {
+            metrics.eventSkipped("closed");
+            return false;
         }
-
-        return outputs;
-    }
-
-    /**
-     * Create all checks related to pull requests.
-     *
-     * @return a list of checks that to be executed; never null
-     */
-    private List<Check> createChecks() {
-        List<Check> checks = new ArrayList<>();
-        checks.add(new JiraIssueCheck(deploymentConfig));
-        checks.add(new PullRequestTitleCheck());
-        return checks;
-    }
-
-    /**
-     * Finds the existing comment added by the bot; if one exists.
-     *
-     * @param pullRequest the pull request to examine; must not be null
-     * @return the comment or null if none were detected
-     * @throws IOException if there was a problem reading the GitHub pull request data
-     */
-    private GHIssueComment findExistingComment(GHPullRequest pullRequest) throws IOException {
-        for (GHIssueComment comment : pullRequest.listComments()) {
-            if (comment.getUser().getLogin().contains(deploymentConfig.getUserName())) {
-                return comment;
-            }
+        if (repository.getId() != pullRequest.getBase().getRepository().getId()) {
+            metrics.eventSkipped("other-repository");
+            return false;
         }
-        return null;
+        return true;
     }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
+
+import io.debezium.github.bot.check.CheckInput;
+import io.debezium.github.bot.util.PullRequestKey;
+import io.opentelemetry.context.Context;
+
+/**
+ * An accepted pull request event awaiting processing.
+ *
+ * @author Chris Cranford
+ */
+public class PullRequestEvent {
+
+    final PullRequestKey key;
+    final long installationId;
+    final GitHub github;
+    final GHRepository repository;
+    final GHPullRequest pullRequest;
+    final String action;
+    final Set<CheckInput> changes;
+
+    /**
+     * The journal sequence of the event, or 0 if the event is not journaled.
+     */
+    volatile long sequence;
+
+    /**
+     * The trace context of the delivery that carried the event, or the root context if the event was not
+     * delivered by a webhook, i.e. when it is replayed from the journal.
+     */
+    volatile Context traceContext = Context.root();
+
+    /**
+     * Completed once the event, or the event it was merged into, was processed by the work queue: with true when
+     * it was processed, with false when it was shed, or exceptionally when processing failed.
+     */
+    final CompletableFuture<Boolean> processed = new CompletableFuture<>();
+
+    /**
+     * Creates an event that may have changed any input of the checks.
+     *
+     * @param installationId the identifier of the app installation the event was delivered for
+     * @param github the github client of the installation; may be null
+     * @param repository the github repository; must not be null
+     * @param pullRequest the github pull request state carried by the event; must not be null
+     * @param action the event action, i.e. {@code synchronize}; must not be null
+     */
+    PullRequestEvent(long installationId, GitHub github, GHRepository repository, GHPullRequest pullRequest, String action) {
+        this(installationId, github, repository, pullRequest, action, CheckInput.all());
+    }
+
+    /**
+     * Creates the event.
+     *
+     * @param installationId the identifier of the app installation the event was delivered for
+     * @param github the github client of the installation; may be null
+     * @param repository the github repository; must not be null
+     * @param pullRequest the github pull request state carried by the event; must not be null
+     * @param action the event action, i.e. {@code synchronize}; must not be null
+     * @param changes the check inputs the event may have changed; must not be null
+     */
+    PullRequestEvent(long installationId, GitHub github, GHRepository repository, GHPullRequest pullRequest, String action,
+                     Set<CheckInput> changes) {
+        this.key = PullRequestKey.of(repository, pullRequest);
+        this.installationId = installationId;
+        this.github = github;
+        this.repository = repository;
+        this.pullRequest = pullRequest;
+        this.action = action;
+        this.changes = changes;
+    }
+
+    /**
+     * Combines this event with an event for the same pull request that arrived after it.
+     *
+     * Deliveries may arrive out of order, so the pull request state of the event that was updated most recently
+     * is kept, while the checks affected by either event are re-run.
+     *
+     * @param latest the event that arrived after this one; must not be null
+     * @return the event that should be processed in place of both events; never null
+     */
+    PullRequestEvent coalesce(PullRequestEvent latest) {
+        final PullRequestEvent recent = latest.updatedAt() >= updatedAt() ? latest : this;
+        final PullRequestEvent other = recent == latest ? this : latest;
+        if (recent.changes.containsAll(other.changes)) {
+            // Processing the event acknowledges both journal entries
+            recent.sequence = Math.max(sequence, latest.sequence);
+            other.completesWith(recent);
+            return recent;
+        }
+
+        // The combined event must still re-run the checks affected by both events
+        final Set<CheckInput> combined = EnumSet.copyOf(recent.changes);
+        combined.addAll(other.changes);
+        final PullRequestEvent event = new PullRequestEvent(recent.installationId, recent.github, recent.repository,
+                recent.pullRequest, recent.action, combined);
+        event.sequence = Math.max(sequence, latest.sequence);
+        event.traceContext = latest.traceContext;
+        completesWith(event);
+        latest.completesWith(event);
+        return event;
+    }
+
+    private void completesWith(PullRequestEvent event) {
+        event.processed.whenComplete((result, error) -> {
+            if (error != null) {
+                processed.completeExceptionally(error);
+            }
+            else {
+                processed.complete(result);
+            }
+        });
+    }
+
+    /**
+     * Get the last update time of the pull request state carried by the event.
+     *
+     * @return the update time in milliseconds since the epoch, or 0 if it is not known
+     */
+    long updatedAt() {
+        try {
+            final Date updatedAt = pullRequest.getUpdatedAt();
+            return updatedAt != null ? updatedAt.getTime() : 0;
+        }
+        catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PR #" + pullRequest.getNumber() + " (" + action + ")";
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.util.PullRequestKey;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Coalesces bursts of events for the same pull request.
+ *
+ * The first event for a pull request opens a quiet window; any further events for the same pull request
+ * that arrive before the window closes are merged into the pending event. When the window closes, only the
+ * merged event is handed to the {@link PullRequestWorkQueue}. Since the window is never extended by later events, the delay an event can
+ * incur is bounded by the window length.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class PullRequestEventCoalescer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PullRequestEventCoalescer.class);
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    @Inject
+    PullRequestWorkQueue workQueue;
+
+    private final ConcurrentMap<PullRequestKey, PullRequestEvent> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void initialize() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bot-event-window");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Submits an event, either opening a new quiet window for the pull request or merging the event into
+     * the event already pending for it.
+     *
+     * @param event the event; must not be null
+     */
+    void submit(PullRequestEvent event) {
+        final AtomicBoolean opened = new AtomicBoolean();
+        pending.compute(event.key, (key, previous) -> {
+            if (previous == null) {
+                opened.set(true);
+                return event;
+            }
+            return previous.coalesce(event);
+        });
+
+        if (opened.get()) {
+            scheduler.schedule(() -> windowClosed(event.key), deploymentConfig.getEventQuietWindow().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        else {
+            LOGGER.debug("Coalesced {} into pending event.", event);
+        }
+    }
+
+    private void windowClosed(PullRequestKey key) {
+        final PullRequestEvent event = pending.remove(key);
+        if (event != null) {
+            workQueue.submit(event);
+        }
+    }
+}
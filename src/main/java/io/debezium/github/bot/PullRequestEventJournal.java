@@ -0,0 +1,257 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.util.PullRequestKey;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * An append-only journal of accepted pull request events, so that events still queued or in progress when the
+ * bot stops are processed again after a restart.
+ *
+ * The journal is a memory-mapped file of fixed-size records. Every accepted event appends a record carrying
+ * the installation, repository and pull request number, and every processed event appends a record
+ * acknowledging all earlier events of its pull request. Appends only write to the mapping; the mapping is
+ * forced to disk in batches by a background task, so journaling adds no synchronous I/O to webhook handling.
+ *
+ * The journal is compacted when it is opened and whenever the file is full, by writing the latest
+ * unacknowledged event per pull request to a new file that atomically replaces the previous one.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class PullRequestEventJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PullRequestEventJournal.class);
+
+    // type (int), number (int), installation id (long), repository id (long), sequence (long)
+    private static final int RECORD_SIZE = 32;
+    private static final int TYPE_ACCEPTED = 1;
+    private static final int TYPE_COMPLETED = 2;
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    private final Map<PullRequestKey, JournalEntry> pending = new LinkedHashMap<>();
+
+    private Path file;
+    private MappedByteBuffer buffer;
+    private long sequence;
+    private boolean dirty;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    void initialize() {
+        if (!deploymentConfig.isJournalEnabled()) {
+            return;
+        }
+        file = Path.of(deploymentConfig.getJournalFile());
+        try {
+            read();
+            compact();
+        }
+        catch (IOException e) {
+            LOGGER.error("Unable to open the event journal {}; events are not journaled.", file, e);
+            buffer = null;
+            return;
+        }
+
+        final long interval = deploymentConfig.getJournalFlushInterval().toMillis();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bot-journal-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        LOGGER.info("Event journal {} opened with {} unacknowledged event(s).", file, pending.size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * Records an accepted event and assigns its journal sequence.
+     *
+     * @param event the event; must not be null
+     */
+    synchronized void accepted(PullRequestEvent event) {
+        if (buffer == null) {
+            return;
+        }
+        event.sequence = ++sequence;
+        final JournalEntry entry = new JournalEntry(event.installationId, event.key.repositoryId(), event.key.number(), event.sequence);
+        pending.put(event.key, entry);
+        append(TYPE_ACCEPTED, entry);
+    }
+
+    /**
+     * Acknowledges a processed event, along with all events of the same pull request journaled before it.
+     *
+     * @param event the event; must not be null
+     */
+    synchronized void completed(PullRequestEvent event) {
+        if (buffer == null || event.sequence == 0) {
+            return;
+        }
+        discard(new JournalEntry(event.installationId, event.key.repositoryId(), event.key.number(), event.sequence));
+    }
+
+    /**
+     * Acknowledges a journaled event that can no longer be processed.
+     *
+     * @param entry the journal entry; must not be null
+     */
+    synchronized void discard(JournalEntry entry) {
+        if (buffer == null) {
+            return;
+        }
+        final PullRequestKey key = new PullRequestKey(entry.repositoryId(), entry.number());
+        final JournalEntry latest = pending.get(key);
+        if (latest != null && latest.sequence() <= entry.sequence()) {
+            pending.remove(key);
+        }
+        append(TYPE_COMPLETED, entry);
+    }
+
+    /**
+     * Get the latest unacknowledged event of every pull request.
+     *
+     * @return the entries in the order their pull requests were first journaled; never null
+     */
+    synchronized List<JournalEntry> getPendingEntries() {
+        return new ArrayList<>(pending.values());
+    }
+
+    private void append(int type, JournalEntry entry) {
+        try {
+            if (buffer.remaining() < RECORD_SIZE) {
+                compact();
+            }
+            buffer.putInt(type)
+                    .putInt(entry.number())
+                    .putLong(entry.installationId())
+                    .putLong(entry.repositoryId())
+                    .putLong(entry.sequence());
+            dirty = true;
+        }
+        catch (IOException e) {
+            // Journaling is best effort, it must never prevent an event from being processed
+            LOGGER.warn("Unable to append to the event journal {}", file, e);
+        }
+    }
+
+    private synchronized void flush() {
+        if (buffer != null && dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Reads all records of an existing journal into the pending entries.
+     */
+    private void read() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (records.remaining() >= RECORD_SIZE) {
+                final int type = records.getInt();
+                final int number = records.getInt();
+                final JournalEntry entry = new JournalEntry(records.getLong(), records.getLong(), number, records.getLong());
+                if (type != TYPE_ACCEPTED && type != TYPE_COMPLETED) {
+                    // The unused, zero-filled remainder of the file
+                    break;
+                }
+                sequence = Math.max(sequence, entry.sequence());
+
+                final PullRequestKey key = new PullRequestKey(entry.repositoryId(), entry.number());
+                if (type == TYPE_ACCEPTED) {
+                    pending.put(key, entry);
+                }
+                else {
+                    final JournalEntry latest = pending.get(key);
+                    if (latest != null && latest.sequence() <= entry.sequence()) {
+                        pending.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the journal with a new file holding only the pending entries.
+     */
+    private void compact() throws IOException {
+        final int capacity = Math.max(deploymentConfig.getJournalCapacity(), pending.size() * 2 + 1);
+        final Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+        final MappedByteBuffer compacted;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            compacted = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+            for (JournalEntry entry : pending.values()) {
+                compacted.putInt(TYPE_ACCEPTED)
+                        .putInt(entry.number())
+                        .putLong(entry.installationId())
+                        .putLong(entry.repositoryId())
+                        .putLong(entry.sequence());
+            }
+            compacted.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // The mapping stays valid after the channel is closed and the file is renamed
+        buffer = compacted;
+        dirty = false;
+    }
+
+    /**
+     * An unacknowledged event.
+     *
+     * @param installationId the identifier of the app installation
+     * @param repositoryId the repository identifier
+     * @param number the pull request number
+     * @param sequence the journal sequence of the event
+     */
+    record JournalEntry(long installationId, long repositoryId, int number, long sequence) {
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import org.kohsuke.github.GHIssueState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.github.bot.check.PullRequestSnapshot;
+import io.debezium.github.bot.check.PullRequestSnapshot.Comment;
+import io.debezium.github.bot.check.PullRequestSnapshot.Commit;
+import io.debezium.github.bot.client.GitHubCallScheduler;
+import io.debezium.github.bot.client.Priority;
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.metrics.BotMetrics;
+import io.quarkiverse.githubapp.GitHubClientProvider;
+import io.smallrye.graphql.client.GraphQLError;
+import io.smallrye.graphql.client.Response;
+import io.smallrye.graphql.client.dynamic.api.DynamicGraphQLClient;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+
+/**
+ * Fetches the pull request data used by the checks and the bot comment with a single GraphQL query.
+ *
+ * The commits and comments are paginated with cursors; follow-up pages only request the connections that
+ * still have more items, and the comments are no longer paged once the bot comment was found. Most pull
+ * requests are therefore fetched with a single round trip, instead of one REST call per page of commits and
+ * comments.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class PullRequestPrefetcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PullRequestPrefetcher.class);
+
+    private static final String OPERATION = "prefetchPullRequest";
+
+    private static final String QUERY = "query($owner: String!, $name: String!, $number: Int!, $pageSize: Int!,"
+            + " $withCommits: Boolean!, $commitsCursor: String, $withComments: Boolean!, $commentsCursor: String) {"
+            + " repository(owner: $owner, name: $name) {"
+            + " pullRequest(number: $number) {"
+            + " title body state headRefOid baseRefOid"
+            + " commits(first: $pageSize, after: $commitsCursor) @include(if: $withCommits) {"
+            + " pageInfo { hasNextPage endCursor } nodes { commit { oid message } } }"
+            + " comments(first: $pageSize, after: $commentsCursor) @include(if: $withComments) {"
+            + " pageInfo { hasNextPage endCursor } nodes { databaseId body author { login } } }"
+            + " } } }";
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    @Inject
+    GitHubClientProvider clientProvider;
+
+    @Inject
+    GitHubCallScheduler scheduler;
+
+    @Inject
+    BotMetrics metrics;
+
+    /**
+     * Fetches the snapshot of the pull request of an event.
+     *
+     * @param event the pull request event; must not be null
+     * @return the snapshot, or null if prefetching is disabled or failed, in which case the data is read with
+     *         individual REST calls
+     */
+    PullRequestSnapshot prefetch(PullRequestEvent event) {
+        if (!deploymentConfig.isGraphQLPrefetchEnabled() || event.installationId <= 0) {
+            return null;
+        }
+        try {
+            return fetch(event);
+        }
+        catch (InterruptedIOException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        catch (IOException | RuntimeException e) {
+            LOGGER.warn("{} - Unable to prefetch the pull request, falling back to REST calls", event, e);
+            return null;
+        }
+    }
+
+    private PullRequestSnapshot fetch(PullRequestEvent event) throws IOException {
+        final DynamicGraphQLClient client = clientProvider.getInstallationGraphQLClient(event.installationId);
+
+        final Map<String, Object> variables = new HashMap<>();
+        variables.put("owner", event.repository.getOwnerName());
+        variables.put("name", event.repository.getName());
+        variables.put("number", event.pullRequest.getNumber());
+        variables.put("pageSize", GitHubCallScheduler.PAGE_SIZE);
+        variables.put("withCommits", true);
+        variables.put("commitsCursor", null);
+        variables.put("withComments", true);
+        variables.put("commentsCursor", null);
+
+        final List<Commit> commits = new ArrayList<>();
+        Comment botComment = null;
+        JsonObject pullRequest = null;
+        boolean moreCommits = true;
+        boolean moreComments = true;
+        int pages = 0;
+
+        while (moreCommits || moreComments) {
+            final JsonObject page = query(client, variables);
+            pages++;
+            if (pullRequest == null) {
+                pullRequest = page;
+            }
+
+            if (moreCommits) {
+                final JsonObject connection = page.getJsonObject("commits");
+                for (JsonValue node : connection.getJsonArray("nodes")) {
+                    final JsonObject commit = node.asJsonObject().getJsonObject("commit");
+                    commits.add(new Commit(commit.getString("oid"), commit.getString("message")));
+                }
+                moreCommits = hasNextPage(connection, variables, "commitsCursor");
+            }
+
+            if (moreComments) {
+                final JsonObject connection = page.getJsonObject("comments");
+                for (JsonValue node : connection.getJsonArray("nodes")) {
+                    final JsonObject comment = node.asJsonObject();
+                    if (isBotComment(comment)) {
+                        botComment = new Comment(comment.getJsonNumber("databaseId").longValue(), comment.getString("body"));
+                        break;
+                    }
+                }
+                moreComments = botComment == null && hasNextPage(connection, variables, "commentsCursor");
+            }
+
+            variables.put("withCommits", moreCommits);
+            variables.put("withComments", moreComments);
+        }
+        metrics.gitHubPages(OPERATION, pages);
+
+        return new PullRequestSnapshot(
+                pullRequest.getString("title"),
+                pullRequest.isNull("body") ? null : pullRequest.getString("body"),
+                "OPEN".equals(pullRequest.getString("state")) ? GHIssueState.OPEN : GHIssueState.CLOSED,
+                pullRequest.getString("headRefOid"),
+                pullRequest.getString("baseRefOid"),
+                commits,
+                botComment);
+    }
+
+    private JsonObject query(DynamicGraphQLClient client, Map<String, Object> variables) throws IOException {
+        final Response response = scheduler.call(null, Priority.NORMAL, OPERATION, () -> {
+            try {
+                return client.executeSync(QUERY, variables);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while prefetching the pull request");
+            }
+            catch (ExecutionException e) {
+                throw new IOException("GraphQL query failed", e.getCause());
+            }
+        });
+
+        if (response.hasError()) {
+            throw new IOException("GraphQL query failed: "
+                    + response.getErrors().stream().map(GraphQLError::getMessage).collect(Collectors.joining("; ")));
+        }
+
+        final JsonObject data = response.getData();
+        if (data == null || data.isNull("repository") || data.getJsonObject("repository").isNull("pullRequest")) {
+            throw new IOException("Pull request not found");
+        }
+        return data.getJsonObject("repository").getJsonObject("pullRequest");
+    }
+
+    private boolean isBotComment(JsonObject comment) {
+        if (comment.isNull("author") || comment.isNull("databaseId")) {
+            return false;
+        }
+        return comment.getJsonObject("author").getString("login").contains(deploymentConfig.getUserName());
+    }
+
+    private static boolean hasNextPage(JsonObject connection, Map<String, Object> variables, String cursor) {
+        final JsonObject pageInfo = connection.getJsonObject("pageInfo");
+        if (!pageInfo.getBoolean("hasNextPage")) {
+            return false;
+        }
+        variables.put(cursor, pageInfo.getString("endCursor"));
+        return true;
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.kohsuke.github.GHFileNotFoundException;
+import org.kohsuke.github.GHIssueComment;
+import org.kohsuke.github.GHIssueState;
+import org.kohsuke.github.GHPullRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.github.bot.BotCommentCache.BotComment;
+import io.debezium.github.bot.check.Check;
+import io.debezium.github.bot.check.CheckContext;
+import io.debezium.github.bot.check.CheckInput;
+import io.debezium.github.bot.check.CheckRunCache;
+import io.debezium.github.bot.check.CheckRunOutput;
+import io.debezium.github.bot.check.CheckRunner;
+import io.debezium.github.bot.check.OutputTemplateRegistry;
+import io.debezium.github.bot.check.OutputTemplates;
+import io.debezium.github.bot.check.PullRequestRun;
+import io.debezium.github.bot.check.PullRequestSnapshot;
+import io.debezium.github.bot.check.RunCancelledException;
+import io.debezium.github.bot.client.GitHubCallScheduler;
+import io.debezium.github.bot.client.Priority;
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.jira.JiraClient;
+import io.debezium.github.bot.metrics.BotMetrics;
+import io.debezium.github.bot.metrics.BotTracing;
+import io.debezium.github.bot.util.CommitMessageRules;
+import io.debezium.github.bot.util.Fingerprint;
+import io.debezium.github.bot.util.IssueKeyMatcher;
+import io.debezium.github.bot.util.PullRequestKey;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Runs the contribution checks for a pull request event and maintains the bot comment.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class PullRequestProcessor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PullRequestProcessor.class);
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    @Inject
+    CheckRunner checkRunner;
+
+    @Inject
+    CheckRunCache checkRunCache;
+
+    @Inject
+    GitHubCallScheduler scheduler;
+
+    @Inject
+    CommitIssueKeyCache commitIssueKeyCache;
+
+    @Inject
+    BotCommentCache botCommentCache;
+
+    @Inject
+    PullRequestPrefetcher prefetcher;
+
+    @Inject
+    PullRequestRunRegistry runRegistry;
+
+    @Inject
+    OutputTemplateRegistry templateRegistry;
+
+    @Inject
+    JiraClient jiraClient;
+
+    @Inject
+    BotMetrics metrics;
+
+    @Inject
+    BotTracing tracing;
+
+    private IssueKeyMatcher issueKeyMatcher;
+    private CommitMessageRules commitMessageRules;
+
+    @PostConstruct
+    void initialize() {
+        issueKeyMatcher = new IssueKeyMatcher(deploymentConfig.getIssueKeyProjects());
+        final String issueKeyExample = deploymentConfig.getIssueKeyProjects().get(0).trim() + "-XXXX";
+        commitMessageRules = deploymentConfig.getCommitMessageRules()
+                .map(rules -> CommitMessageRules.compile(rules, issueKeyMatcher, issueKeyExample))
+                .orElse(null);
+    }
+
+    /**
+     * Runs the checks for the pull request and adds or updates the bot comment.
+     *
+     * The run is registered with the run registry, and stops before its next GitHub call once a newer commit of
+     * the pull request arrives; only the run for the latest commit writes the comment. Processing is traced as
+     * part of the trace of the delivery that carried the event.
+     *
+     * @param event the pull request event; never null
+     * @throws IOException if an error occurred
+     */
+    void process(PullRequestEvent event) throws IOException {
+        final Timer.Sample sample = metrics.start();
+        final PullRequestRun run = runRegistry.start(event);
+        final Span span = tracing.startPullRequestSpan("processPullRequest", event.traceContext, event.pullRequest.getNumber(),
+                run.getHeadSha());
+        span.setAttribute(BotTracing.ACTION, event.action);
+        String outcome = BotMetrics.OUTCOME_ERROR;
+        try (Scope scope = span.makeCurrent()) {
+            outcome = processChecks(event, run);
+        }
+        catch (RunCancelledException e) {
+            // The changes of the event were not checked, so no output may be carried forward past them
+            checkRunCache.evictOutputs(event.key);
+            LOGGER.info("{} - {}", event, e.getMessage());
+            metrics.eventSkipped("superseded");
+            outcome = BotMetrics.OUTCOME_CANCELLED;
+        }
+        catch (IOException | RuntimeException e) {
+            checkRunCache.evictOutputs(event.key);
+            tracing.failed(span, e);
+            throw e;
+        }
+        finally {
+            runRegistry.finish(event, run);
+            metrics.eventProcessed(sample, outcome);
+            tracing.end(span, outcome);
+        }
+    }
+
+    private String processChecks(PullRequestEvent event, PullRequestRun run) throws IOException {
+        final GHPullRequest pullRequest = event.pullRequest;
+
+        // The run may be returned already cancelled when a more recent state is being evaluated
+        run.checkCancelled();
+
+        // Fetch the data of the pull request once, so that all checks see the same state
+        final PullRequestSnapshot snapshot = prefetcher.prefetch(event);
+
+        // Create checks and generate their output
+        final OutputTemplates templates = templateRegistry.forRepository(event.repository.getFullName());
+        CheckContext context = new CheckContext(deploymentConfig, scheduler, event.github, event.repository, pullRequest, snapshot, run,
+                templates);
+        List<CheckRunOutput> outputs = createChecksAndRun(context, event.changes);
+
+        // Verify if the checks all passed
+        boolean passed = outputs.stream().allMatch(CheckRunOutput::passed);
+
+        // Avoid creating noisy comments if the issue is closed.
+        if (GHIssueState.CLOSED.equals(context.getState())) {
+            metrics.eventSkipped("closed-after-checks");
+            return passed ? BotMetrics.OUTCOME_SUCCESS : BotMetrics.OUTCOME_FAILURE;
+        }
+
+        // Generate the comment text into a buffer sized for it
+        int length = templates.commentLength(passed);
+        for (CheckRunOutput output : outputs) {
+            length += output.length(templates, false);
+        }
+        StringBuilder message = new StringBuilder(length);
+        templates.appendCommentIntro(message, passed);
+        outputs.forEach(output -> output.appendFailingRules(message, templates));
+        templates.appendCommentFooter(message);
+
+        final String body = message.toString();
+        final String fingerprint = Fingerprint.of(body);
+
+        if (snapshot != null && snapshot.botComment() != null) {
+            // Skip any GitHub call when the comment last written by the bot still exists and already has this body
+            BotComment cachedComment = botCommentCache.getComment(event.key);
+            if (cachedComment != null && cachedComment.id() == snapshot.botComment().id()
+                    && fingerprint.equals(cachedComment.fingerprint())) {
+                LOGGER.debug("PR #{} - Comment unchanged, skipping update", pullRequest.getNumber());
+                metrics.commentUpdateSkipped();
+                return passed ? BotMetrics.OUTCOME_SUCCESS : BotMetrics.OUTCOME_FAILURE;
+            }
+
+            // The prefetched bot comment already has this body
+            if (body.equals(snapshot.botComment().body())) {
+                botCommentCache.putComment(event.key, snapshot.botComment().id(), fingerprint);
+                metrics.commentUpdateSkipped();
+                return passed ? BotMetrics.OUTCOME_SUCCESS : BotMetrics.OUTCOME_FAILURE;
+            }
+        }
+
+        // Without a snapshot, the comment may have been deleted since it was written; it is fetched by its
+        // identifier below, and only updated if its body differs
+
+        // Find the comment that should be modified by the bot; may be null if none exist.
+        // Comment writes have the lowest priority and are deferred first when quota runs low.
+        GHIssueComment existingComment = findExistingComment(context, event.key);
+        if (!deploymentConfig.isDryRun()) {
+            if (existingComment == null) {
+                // No comment found, add a new comment with the message
+                GHIssueComment comment = context.call(Priority.LOW, "createComment", () -> pullRequest.comment(body));
+                botCommentCache.putComment(event.key, comment.getId(), fingerprint);
+            }
+            else if (body.equals(existingComment.getBody())) {
+                // Existing comment detected with the same contents, nothing to update
+                botCommentCache.putComment(event.key, existingComment.getId(), fingerprint);
+                metrics.commentUpdateSkipped();
+            }
+            else {
+                // Existing comment detected, update the contents
+                context.call(Priority.LOW, "updateComment", () -> {
+                    existingComment.update(body);
+                    return null;
+                });
+                botCommentCache.putComment(event.key, existingComment.getId(), fingerprint);
+            }
+        }
+        else {
+            // In dry-mode run; while contents to the log instead
+            LOGGER.info("PR #{} - Added comment {}", pullRequest.getNumber(), body);
+        }
+        return passed ? BotMetrics.OUTCOME_SUCCESS : BotMetrics.OUTCOME_FAILURE;
+    }
+
+    /**
+     * Create all checks and run them.
+     *
+     * @param context the context; never null
+     * @param changes the check inputs changed by the event; never null
+     * @return the list of outputs per check in the order the checks were created, never null
+     * @throws IOException if an error occurred
+     */
+    private List<CheckRunOutput> createChecksAndRun(CheckContext context, Set<CheckInput> changes) throws IOException {
+        return checkRunner.run(context, createChecks(), changes);
+    }
+
+    /**
+     * Create all checks related to pull requests.
+     *
+     * @return a list of checks that to be executed; never null
+     */
+    private List<Check> createChecks() {
+        List<Check> checks = new ArrayList<>();
+        checks.add(new JiraIssueCheck(deploymentConfig, commitIssueKeyCache, issueKeyMatcher, jiraClient));
+        checks.add(new PullRequestTitleCheck());
+        if (commitMessageRules != null) {
+            checks.add(new CommitMessageCheck(commitMessageRules));
+        }
+        return checks;
+    }
+
+    /**
+     * Finds the existing comment added by the bot; if one exists.
+     *
+     * With a prefetched snapshot, the snapshot alone tells whether the comment exists, and a comment it found is
+     * fetched by its identifier. Without one, the comment is fetched by the identifier cached from a previous
+     * event. All comments of the pull request are only scanned when the identifier is not known or the comment
+     * has since been deleted.
+     *
+     * @param context the context holding the pull request to examine; must not be null
+     * @param key the pull request key; must not be null
+     * @return the comment or null if none were detected
+     * @throws IOException if there was a problem reading the GitHub pull request data
+     */
+    private GHIssueComment findExistingComment(CheckContext context, PullRequestKey key) throws IOException {
+        final GHPullRequest pullRequest = context.pullRequest;
+        final Timer.Sample sample = metrics.start();
+        final PullRequestSnapshot snapshot = context.snapshot;
+        if (snapshot != null) {
+            if (snapshot.botComment() == null) {
+                // The prefetch examined all comments
+                metrics.commentLookup(sample, "prefetch");
+                return null;
+            }
+
+            // The prefetch, not the cache, found the comment; it is only fetched because its body has to be updated
+            final long commentId = snapshot.botComment().id();
+            try {
+                GHIssueComment comment = context.call(Priority.LOW, "getComment", () -> pullRequest.getComment(commentId));
+                botCommentCache.putComment(key, commentId, null);
+                metrics.commentLookup(sample, "prefetch");
+                return comment;
+            }
+            catch (GHFileNotFoundException e) {
+                LOGGER.debug("PR #{} - Bot comment {} was deleted after the prefetch.", pullRequest.getNumber(), commentId);
+                botCommentCache.evict(key);
+            }
+        }
+        else {
+            BotComment cachedComment = botCommentCache.getComment(key);
+            if (cachedComment != null) {
+                final long commentId = cachedComment.id();
+                try {
+                    GHIssueComment comment = context.call(Priority.LOW, "getComment", () -> pullRequest.getComment(commentId));
+                    metrics.commentScanAvoided();
+                    metrics.commentLookup(sample, "cache");
+                    return comment;
+                }
+                catch (GHFileNotFoundException e) {
+                    LOGGER.debug("PR #{} - Bot comment {} no longer exists.", pullRequest.getNumber(), commentId);
+                    botCommentCache.evict(key);
+                }
+            }
+        }
+
+        final int[] scanned = new int[1];
+        GHIssueComment existingComment = context.call(Priority.LOW, "listComments", () -> {
+            for (GHIssueComment comment : pullRequest.listComments().withPageSize(GitHubCallScheduler.PAGE_SIZE)) {
+                scanned[0]++;
+                if (comment.getUser().getLogin().contains(deploymentConfig.getUserName())) {
+                    return comment;
+                }
+            }
+            return null;
+        });
+        metrics.gitHubPages("listComments", Math.max(1, (scanned[0] + GitHubCallScheduler.PAGE_SIZE - 1) / GitHubCallScheduler.PAGE_SIZE));
+        metrics.commentLookup(sample, "scan");
+
+        if (existingComment != null) {
+            botCommentCache.putComment(key, existingComment.getId(), null);
+        }
+        return existingComment;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.github.bot.check.PullRequestRun;
+import io.debezium.github.bot.util.PullRequestKey;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Tracks the head commit each pull request is currently being evaluated at, so that a run is cancelled as soon
+ * as a newer commit is pushed rather than spending quota on a result that is no longer relevant, and possibly
+ * overwriting the comment written for the newer commit.
+ *
+ * Only a more recent state of the pull request cancels a run: events replayed from the journal or checked by
+ * the backfill may carry a state that is older than the one being evaluated, and must not cancel it. The changes
+ * of a cancelled event are not lost, as the cached check outputs of its pull request are dropped once it stops.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class PullRequestRunRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PullRequestRunRegistry.class);
+
+    private final ConcurrentMap<PullRequestKey, PullRequestRun> runs = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the run for an event. When another run of the same pull request is active, only the run of the
+     * more recent state goes on: the active run is cancelled if the event carries a more recent state, otherwise
+     * the new run is returned already cancelled, so that it stops before its first GitHub call. A run of the same
+     * state as the active run is cancelled as well, as that state is already being evaluated.
+     *
+     * @param event the event about to be processed; must not be null
+     * @return the run; never null
+     */
+    PullRequestRun start(PullRequestEvent event) {
+        final String headSha = event.pullRequest.getHead().getSha();
+        final PullRequestRun run = new PullRequestRun(headSha, event.updatedAt());
+        runs.compute(event.key, (key, active) -> {
+            if (active == null || active.isCancelled()) {
+                return run;
+            }
+            if (isMoreRecent(run, active)) {
+                if (active.cancel()) {
+                    LOGGER.info("{} - Cancelling the run for head {} superseded by {}", event, active.getHeadSha(), headSha);
+                }
+                return run;
+            }
+            run.cancel();
+            LOGGER.info("{} - Not evaluating head {}, the run for head {} evaluates the same or a more recent state", event, headSha,
+                    active.getHeadSha());
+            return active;
+        });
+        return run;
+    }
+
+    /**
+     * Unregisters a run once it finished.
+     *
+     * @param event the event that was processed; must not be null
+     * @param run the run of the event; must not be null
+     */
+    void finish(PullRequestEvent event, PullRequestRun run) {
+        runs.remove(event.key, run);
+    }
+
+    /**
+     * Cancels the run of the pull request of an event delivered by a webhook when the event carries a newer head
+     * commit. The run is kept when it evaluates a more recent state than the event, i.e. when deliveries arrive
+     * out of order.
+     *
+     * @param event the accepted event; must not be null
+     */
+    void supersede(PullRequestEvent event) {
+        final PullRequestRun run = runs.get(event.key);
+        if (run != null && event.updatedAt() >= run.getUpdatedAt()) {
+            cancel(event, run);
+        }
+    }
+
+    private static boolean isMoreRecent(PullRequestRun run, PullRequestRun active) {
+        if (run.getUpdatedAt() == 0 && active.getUpdatedAt() == 0) {
+            // The states are not known; only another head commit is assumed to be more recent
+            return !run.getHeadSha().equals(active.getHeadSha());
+        }
+        return run.getUpdatedAt() > active.getUpdatedAt();
+    }
+
+    private void cancel(PullRequestEvent event, PullRequestRun run) {
+        final String headSha = event.pullRequest.getHead().getSha();
+        if (!run.getHeadSha().equals(headSha) && run.cancel()) {
+            LOGGER.info("{} - Cancelling the run for head {} superseded by {}", event, run.getHeadSha(), headSha);
+        }
+    }
+}
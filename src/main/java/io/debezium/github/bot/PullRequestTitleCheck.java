@@ -6,10 +6,13 @@
 package io.debezium.github.bot;
 
 import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import io.debezium.github.bot.check.Check;
 import io.debezium.github.bot.check.CheckContext;
+import io.debezium.github.bot.check.CheckInput;
 import io.debezium.github.bot.check.CheckRunOutput;
 
 /**
@@ -32,9 +35,19 @@ public class PullRequestTitleCheck extends Check {
         super("Pull Request Title");
     }
 
+    @Override
+    public boolean isFast() {
+        return true;
+    }
+
+    @Override
+    public Set<CheckInput> dependsOn() {
+        return EnumSet.of(CheckInput.TITLE);
+    }
+
     @Override
     public void run(CheckContext context, CheckRunOutput output) throws IOException {
-        String title = context.pullRequest.getTitle();
+        String title = context.getTitle();
         output.rule(TWO_WORD_RULE).result(title != null && SPACE_PATTERN.split(title.trim()).length >= 2);
         output.rule(NO_ELLIPSIS_RULE).result(title != null && !title.endsWith("..."));
     }
@@ -0,0 +1,182 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.github.bot.check.CheckRunCache;
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.metrics.BotMetrics;
+import io.debezium.github.bot.util.PullRequestKey;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Processes accepted events on a bounded pool of workers, so that webhook deliveries are acknowledged
+ * without waiting for any GitHub API call.
+ *
+ * Events are queued in one lane per pull request. A lane is processed by at most one worker at a time, so
+ * events of the same pull request are processed in order while different pull requests are processed
+ * concurrently. A lane holds at most one waiting event: an event submitted while another one is waiting is
+ * merged into it, since only the latest state of the pull request matters.
+ *
+ * The number of waiting events is bounded by the configured capacity. Once it is reached, events of pull
+ * requests that are neither waiting nor being processed are shed; all checks of such a pull request run again
+ * with its next event, and the event stays pending in the journal so that it is replayed after a restart. A pull
+ * request being processed always accepts a waiting event, as its latest state must be checked as well; there
+ * are at most as many of those as workers.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class PullRequestWorkQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PullRequestWorkQueue.class);
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    @Inject
+    PullRequestProcessor processor;
+
+    @Inject
+    PullRequestEventJournal journal;
+
+    @Inject
+    CheckRunCache checkRunCache;
+
+    @Inject
+    BotMetrics metrics;
+
+    private final ConcurrentMap<PullRequestKey, Lane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private ExecutorService workers;
+
+    @PostConstruct
+    void initialize() {
+        final AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, deploymentConfig.getWorkerPoolSize()), runnable -> {
+            Thread thread = new Thread(runnable, "bot-event-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        metrics.registerQueueDepth(depth);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    /**
+     * Queues an event for processing.
+     *
+     * @param event the event; must not be null
+     * @return true if the event was queued or merged into a waiting event, false if it was shed
+     */
+    boolean submit(PullRequestEvent event) {
+        final boolean[] schedule = new boolean[1];
+        final boolean[] shed = new boolean[1];
+        lanes.compute(event.key, (key, lane) -> {
+            if (lane == null) {
+                lane = new Lane();
+            }
+            if (lane.waiting != null) {
+                lane.waiting = lane.waiting.coalesce(event);
+                return lane;
+            }
+            // A running lane always accepts its single waiting event, so that the latest state of a pull request
+            // being processed is checked as well; these are bounded by the number of workers
+            if (!lane.running && depth.get() >= deploymentConfig.getWorkQueueCapacity()) {
+                shed[0] = true;
+                return null;
+            }
+            lane.waiting = event;
+            lane.queuedAt = System.nanoTime();
+            depth.incrementAndGet();
+            if (!lane.running) {
+                lane.running = true;
+                schedule[0] = true;
+            }
+            return lane;
+        });
+
+        if (shed[0]) {
+            LOGGER.warn("Work queue is full, {} was not processed.", event);
+            metrics.eventSkipped("queue-full");
+            // The next event may not change the inputs changed by this one, so all checks run again then
+            checkRunCache.evictOutputs(event.key);
+            // The event is not acknowledged, so that it is replayed after a restart unless a later event of the
+            // pull request is processed first
+            event.processed.complete(false);
+            return false;
+        }
+        if (schedule[0]) {
+            workers.execute(() -> processNext(event.key));
+        }
+        return true;
+    }
+
+    private void processNext(PullRequestKey key) {
+        final PullRequestEvent[] next = new PullRequestEvent[1];
+        final long[] queuedAt = new long[1];
+        lanes.compute(key, (k, lane) -> {
+            next[0] = lane.waiting;
+            queuedAt[0] = lane.queuedAt;
+            lane.waiting = null;
+            depth.decrementAndGet();
+            return lane;
+        });
+
+        metrics.queueWait(System.nanoTime() - queuedAt[0]);
+        try {
+            processor.process(next[0]);
+            next[0].processed.complete(true);
+        }
+        catch (Exception e) {
+            LOGGER.error("Failed to process {}", next[0], e);
+            next[0].processed.completeExceptionally(e);
+        }
+        finally {
+            journal.completed(next[0]);
+        }
+
+        // Hand the lane to the back of the pool when another event arrived meanwhile, so that a busy pull
+        // request cannot monopolize a worker
+        final boolean[] more = new boolean[1];
+        lanes.compute(key, (k, lane) -> {
+            if (lane.waiting == null) {
+                return null;
+            }
+            more[0] = true;
+            return lane;
+        });
+        if (more[0]) {
+            workers.execute(() -> processNext(key));
+        }
+    }
+
+    /**
+     * The queue state of a single pull request, only accessed within {@link ConcurrentMap#compute}.
+     */
+    private static class Lane {
+
+        PullRequestEvent waiting;
+        long queuedAt;
+        boolean running;
+    }
+}
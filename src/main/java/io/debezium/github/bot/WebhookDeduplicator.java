@@ -0,0 +1,74 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.metrics.BotMetrics;
+import io.debezium.github.bot.util.ExpiringSet;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Detects webhook deliveries that were already accepted, such as deliveries GitHub repeats after a timeout or
+ * redeliveries requested from the app settings.
+ *
+ * A delivery is a duplicate when its delivery identifier was seen before, or when it describes an event that was
+ * seen before: the same action on the same pull request at the same head commit and last update time. The update
+ * time tells genuinely repeated actions apart, such as two edits of the same pull request.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class WebhookDeduplicator {
+
+    private static final String MATCH_DELIVERY = "delivery";
+    private static final String MATCH_EVENT = "event";
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    @Inject
+    BotMetrics metrics;
+
+    private ExpiringSet<String> deliveries;
+    private ExpiringSet<EventKey> events;
+
+    @PostConstruct
+    void initialize() {
+        deliveries = new ExpiringSet<>(deploymentConfig.getDeliveryDedupSize(), deploymentConfig.getDeliveryDedupTtl());
+        events = new ExpiringSet<>(deploymentConfig.getDeliveryDedupSize(), deploymentConfig.getDeliveryDedupTtl());
+    }
+
+    /**
+     * Records a delivery and checks whether it is a duplicate.
+     *
+     * @param deliveryId the {@code X-GitHub-Delivery} identifier; may be null if not known
+     * @param event the event of the delivery; must not be null
+     * @param updatedAt the last update time of the pull request carried by the delivery; must not be null
+     * @return true if the delivery is a duplicate and should be dropped; false otherwise
+     */
+    boolean isDuplicate(String deliveryId, PullRequestEvent event, String updatedAt) {
+        // Both keys are always recorded, so that a redelivery is detected by either of them
+        final boolean newDelivery = deliveryId == null || deliveries.add(deliveryId);
+        final boolean newEvent = events.add(new EventKey(event.key.repositoryId(), event.key.number(),
+                event.pullRequest.getHead().getSha(), event.action, updatedAt));
+
+        if (!newDelivery) {
+            metrics.duplicateDropped(MATCH_DELIVERY);
+            return true;
+        }
+        if (!newEvent) {
+            metrics.duplicateDropped(MATCH_EVENT);
+            return true;
+        }
+        return false;
+    }
+
+    private record EventKey(long repositoryId, int number, String headSha, String action, String updatedAt) {
+    }
+}
@@ -6,6 +6,7 @@
 package io.debezium.github.bot.check;
 
 import java.io.IOException;
+import java.util.Set;
 
 /**
  * The base abstract class for a check performed by the bot.
@@ -26,24 +27,32 @@ protected Check(String name) {
     }
 
     /**
-     * Executes the check.
+     * Whether the check is fast, i.e. it only evaluates data already available in the context without any
+     * further remote calls. Fast checks are run first and their check runs are created already completed
+     * in a single call.
      *
-     * @param context the context, must not be null
-     * @param output the output collector, must not be null
-     * @throws IOException if an error occurred
+     * @return true if the check is fast; false otherwise
      */
-    public abstract void run(CheckContext context, CheckRunOutput output) throws IOException;
+    public boolean isFast() {
+        return false;
+    }
 
     /**
-     * Helper method to create a check execution's output.
+     * The inputs the result of the check depends on. When an event changed none of them, the check is not run
+     * again and its previous output is carried forward.
+     *
+     * @return the inputs; never null
+     */
+    public Set<CheckInput> dependsOn() {
+        return CheckInput.all();
+    }
+
+    /**
+     * Executes the check.
      *
      * @param context the context, must not be null
-     * @param check the check to execute, must not be null
-     * @return the output from the check
+     * @param output the output collector, must not be null
      * @throws IOException if an error occurred
      */
-    public static CheckRunOutput run(CheckContext context, Check check) throws IOException {
-        CheckRun run = CheckRun.create(context, check);
-        return run.run();
-    }
+    public abstract void run(CheckContext context, CheckRunOutput output) throws IOException;
 }
@@ -5,32 +5,243 @@
  */
 package io.debezium.github.bot.check;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.kohsuke.github.GHIssueState;
+import org.kohsuke.github.GHLabel;
 import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHPullRequestFileDetail;
 import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.PagedIterable;
 
+import io.debezium.github.bot.check.PullRequestSnapshot.Commit;
+import io.debezium.github.bot.client.GitHubCall;
+import io.debezium.github.bot.client.GitHubCallScheduler;
+import io.debezium.github.bot.client.Priority;
 import io.debezium.github.bot.config.DeploymentConfig;
 
 /**
  * Parameter object for passing information to checks.
  *
+ * Data that requires GitHub calls, such as the commits or the changed files, is fetched lazily on first access
+ * and shared by all checks of the event, so it is fetched at most once per event regardless of how many checks
+ * use it. The accessors are safe to call from checks running concurrently.
+ *
  * @author Chris Cranford
  */
 public class CheckContext {
 
     public final DeploymentConfig deploymentConfig;
+    public final GitHubCallScheduler scheduler;
+    public final GitHub github;
     public final GHRepository repository;
     public final GHPullRequest pullRequest;
+    public final PullRequestSnapshot snapshot;
+    public final PullRequestRun run;
+    public final OutputTemplates templates;
+
+    private final Memoized<List<Commit>> commits = new Memoized<>(this::fetchCommits);
+    private final Memoized<List<String>> commitMessages = new Memoized<>(
+            () -> getCommits().stream().map(Commit::message).collect(Collectors.toUnmodifiableList()));
+    private final Memoized<List<GHPullRequestFileDetail>> changedFiles = new Memoized<>(
+            () -> List.copyOf(list(Priority.NORMAL, "listFiles", pullRequest.listFiles())));
+    private final Memoized<List<String>> labels = new Memoized<>(
+            () -> pullRequest.getLabels().stream().map(GHLabel::getName).collect(Collectors.toUnmodifiableList()));
 
     /**
      * Creates the context
      *
      * @param deploymentConfig the deployment configuration; must not be null
+     * @param scheduler the scheduler for outbound github calls; must not be null
+     * @param github the github client of the installation; may be null
      * @param repository the github repository; must not be null
      * @param pullRequest the github pull request; must not be null
+     * @param snapshot the prefetched pull request data; may be null if not prefetched
+     * @param run the run the checks are executed for, used for cancellation; may be null
+     * @param templates the templates the check run outputs are rendered with; must not be null
      */
-    public CheckContext(DeploymentConfig deploymentConfig, GHRepository repository, GHPullRequest pullRequest) {
+    public CheckContext(DeploymentConfig deploymentConfig, GitHubCallScheduler scheduler, GitHub github, GHRepository repository,
+                        GHPullRequest pullRequest, PullRequestSnapshot snapshot, PullRequestRun run, OutputTemplates templates) {
         this.deploymentConfig = deploymentConfig;
+        this.scheduler = scheduler;
+        this.github = github;
         this.repository = repository;
         this.pullRequest = pullRequest;
+        this.snapshot = snapshot;
+        this.run = run;
+        this.templates = templates;
+    }
+
+    /**
+     * Get the pull request title, preferring the prefetched snapshot.
+     *
+     * @return the title
+     */
+    public String getTitle() {
+        return snapshot != null ? snapshot.title() : pullRequest.getTitle();
+    }
+
+    /**
+     * Get the pull request body, preferring the prefetched snapshot.
+     *
+     * @return the body; may be null
+     */
+    public String getBody() {
+        return snapshot != null ? snapshot.body() : pullRequest.getBody();
+    }
+
+    /**
+     * Get the pull request state, preferring the prefetched snapshot.
+     *
+     * @return the state
+     */
+    public GHIssueState getState() {
+        return snapshot != null ? snapshot.state() : pullRequest.getState();
+    }
+
+    /**
+     * Get the SHA of the pull request head commit, preferring the prefetched snapshot.
+     *
+     * @return the head SHA
+     */
+    public String getHeadSha() {
+        return snapshot != null ? snapshot.headSha() : pullRequest.getHead().getSha();
+    }
+
+    /**
+     * Get the SHA of the commit of the base branch the pull request was last compared with, preferring the
+     * prefetched snapshot.
+     *
+     * @return the base SHA
+     */
+    public String getBaseSha() {
+        return snapshot != null ? snapshot.baseSha() : pullRequest.getBase().getSha();
+    }
+
+    /**
+     * Get the commits of the pull request, oldest first.
+     *
+     * @return the commits; never null
+     * @throws IOException if the commits could not be fetched
+     */
+    public List<Commit> getCommits() throws IOException {
+        return commits.get();
+    }
+
+    /**
+     * Get the messages of the commits of the pull request, oldest first.
+     *
+     * @return the commit messages; never null
+     * @throws IOException if the commits could not be fetched
+     */
+    public List<String> getCommitMessages() throws IOException {
+        return commitMessages.get();
+    }
+
+    /**
+     * Get the files changed by the pull request.
+     *
+     * @return the changed files; never null
+     * @throws IOException if the files could not be fetched
+     */
+    public List<GHPullRequestFileDetail> getChangedFiles() throws IOException {
+        return changedFiles.get();
+    }
+
+    /**
+     * Get the names of the labels of the pull request.
+     *
+     * @return the label names; never null
+     * @throws IOException if the labels could not be read
+     */
+    public List<String> getLabels() throws IOException {
+        return labels.get();
+    }
+
+    /**
+     * Check whether the run was cancelled, i.e. because a newer commit was pushed.
+     *
+     * @return true if cancelled; false otherwise
+     */
+    public boolean isCancelled() {
+        return run != null && run.isCancelled();
+    }
+
+    /**
+     * Performs a github call through the scheduler, unless the run was cancelled.
+     *
+     * @param priority the priority of the call; must not be null
+     * @param operation the name of the operation; must not be null
+     * @param call the call; must not be null
+     * @param <T> the result type
+     * @return the result of the call
+     * @throws RunCancelledException if the run was cancelled
+     * @throws IOException if the call failed
+     */
+    public <T> T call(Priority priority, String operation, GitHubCall<T> call) throws IOException {
+        checkCancelled();
+        return scheduler.call(github, priority, operation, call);
+    }
+
+    /**
+     * Fetches all pages of a paginated github call through the scheduler.
+     *
+     * @param priority the priority of the call; must not be null
+     * @param operation the name of the operation; must not be null
+     * @param iterable the paginated call; must not be null
+     * @param <T> the item type
+     * @return all items; never null
+     * @throws RunCancelledException if the run was cancelled
+     * @throws IOException if the call failed
+     */
+    public <T> List<T> list(Priority priority, String operation, PagedIterable<T> iterable) throws IOException {
+        checkCancelled();
+        return scheduler.list(github, priority, operation, iterable);
+    }
+
+    private void checkCancelled() throws RunCancelledException {
+        if (run != null) {
+            run.checkCancelled();
+        }
+    }
+
+    private List<Commit> fetchCommits() throws IOException {
+        if (snapshot != null) {
+            return snapshot.commits();
+        }
+        return list(Priority.NORMAL, "listCommits", pullRequest.listCommits()).stream()
+                .map(commit -> new Commit(commit.getSha(), commit.getCommit().getMessage()))
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * A value computed on first access. Concurrent callers wait for the computation rather than repeating it;
+     * a failed computation is not remembered, so that the next caller retries it.
+     */
+    private static class Memoized<T> {
+
+        private final GitHubCall<T> supplier;
+        private volatile T value;
+
+        Memoized(GitHubCall<T> supplier) {
+            this.supplier = supplier;
+        }
+
+        T get() throws IOException {
+            T result = value;
+            if (result == null) {
+                synchronized (this) {
+                    result = value;
+                    if (result == null) {
+                        result = supplier.call();
+                        value = result;
+                    }
+                }
+            }
+            return result;
+        }
     }
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.check;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The parts of a pull request a check can depend on.
+ *
+ * @author Chris Cranford
+ */
+public enum CheckInput {
+
+    /**
+     * The pull request title.
+     */
+    TITLE,
+
+    /**
+     * The pull request body.
+     */
+    BODY,
+
+    /**
+     * The commits of the pull request, including their messages.
+     */
+    COMMITS,
+
+    /**
+     * The files changed by the pull request.
+     */
+    FILES;
+
+    /**
+     * Get all inputs, i.e. for events that may have changed anything.
+     *
+     * @return a new set of all inputs; never null
+     */
+    public static Set<CheckInput> all() {
+        return EnumSet.allOf(CheckInput.class);
+    }
+}
@@ -15,23 +15,39 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.debezium.github.bot.check.CheckRunCache.CompletedCheckRun;
+import io.debezium.github.bot.client.Priority;
+import io.debezium.github.bot.util.Fingerprint;
+
 /**
  * Represents the execution of a Bot check.
  *
+ * A check run is only created on GitHub when it is needed: either explicitly as IN_PROGRESS via {@link #start()}
+ * for checks that take a while, or already COMPLETED in a single call by {@link #complete(CheckRunOutput)} when the
+ * check finished before it was started.
+ *
  * @author Chris Cranford
  */
 public class CheckRun {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CheckRun.class);
+    private static final long UNKNOWN_ID = -1L;
 
     private final CheckContext context;
     private final Check task;
-    private final long id;
+    private final CheckRunCache cache;
+    private final String previousFingerprint;
 
-    CheckRun(CheckContext context, Check task, long id) {
+    private long id;
+    private boolean started;
+    private boolean completed;
+
+    CheckRun(CheckContext context, Check task, long id, CheckRunCache cache, String previousFingerprint) {
         this.context = context;
         this.task = task;
         this.id = id;
+        this.cache = cache;
+        this.previousFingerprint = previousFingerprint;
     }
 
     /**
@@ -41,53 +57,151 @@ public class CheckRun {
      * @throws IOException if an exception occurred
      */
     CheckRunOutput run() throws IOException {
-        // Run the task
-        CheckRunOutput output = new CheckRunOutput(id, task.name);
+        CheckRunOutput output = new CheckRunOutput(task.name);
         task.run(context, output);
+        output.seal();
+        return output;
+    }
+
+    /**
+     * Marks the check run as in progress on GitHub, unless it already exists or was completed.
+     *
+     * @throws IOException if an exception occurred creating the check run
+     */
+    synchronized void start() throws IOException {
+        if (completed || id != UNKNOWN_ID) {
+            return;
+        }
+
+        if (!context.deploymentConfig.isDryRun()) {
+            // When not a dry-run, update GitHub
+            GHCheckRun checkRun = context.call(Priority.NORMAL, "createCheckRun", () -> context.repository
+                    .createCheckRun(task.name, context.getHeadSha())
+                    .withStartedAt(Date.from(Instant.now()))
+                    .withStatus(GHCheckRun.Status.IN_PROGRESS)
+                    .create());
+            id = checkRun.getId();
+            started = true;
+        }
+        else {
+            // Simply log the output of the result to the logs when in dry-run mode.
+            LOGGER.info("PR #{} - Creating task '{}'", context.pullRequest.getNumber(), task.name);
+            id = 42L;
+        }
+    }
+
+    /**
+     * Completes the check run with the output of the task. When the check run was not started, it is created
+     * with its conclusion and output in a single call.
+     *
+     * @param output the output of the task, never null
+     * @throws IOException if an exception occurred
+     */
+    synchronized void complete(CheckRunOutput output) throws IOException {
+        completed = true;
 
         // Resolve the conclusion based on the output's pass/failure flag
         Conclusion result = output.passed() ? Conclusion.SUCCESS : Conclusion.FAILURE;
 
+        final String title = output.title(context.templates);
+        final String contents = output.contents(context.templates);
+        final String fingerprint = Fingerprint.of(result.name(), title, contents);
+        if (fingerprint.equals(previousFingerprint)) {
+            // The check run on this commit already shows this exact result
+            LOGGER.debug("PR #{} - Task run '{}' unchanged, skipping update", context.pullRequest.getNumber(), task.name);
+            return;
+        }
+
         if (!context.deploymentConfig.isDryRun()) {
             // When not a dry-run, update GitHub
-            context.repository.updateCheckRun(id)
-                    .withCompletedAt(Date.from(Instant.now()))
-                    .withStatus(GHCheckRun.Status.COMPLETED)
-                    .withConclusion(result)
-                    .add(new GHCheckRunBuilder.Output(output.title(), output.contents()))
-                    .create();
+            final long checkRunId = id;
+            if (checkRunId != UNKNOWN_ID) {
+                context.call(Priority.HIGH, "updateCheckRun", () -> context.repository.updateCheckRun(checkRunId)
+                        .withCompletedAt(Date.from(Instant.now()))
+                        .withStatus(GHCheckRun.Status.COMPLETED)
+                        .withConclusion(result)
+                        .add(new GHCheckRunBuilder.Output(title, contents))
+                        .create());
+            }
+            else {
+                final Date now = Date.from(Instant.now());
+                id = context.call(Priority.HIGH, "createCheckRun", () -> context.repository
+                        .createCheckRun(task.name, context.getHeadSha())
+                        .withStartedAt(now)
+                        .withCompletedAt(now)
+                        .withStatus(GHCheckRun.Status.COMPLETED)
+                        .withConclusion(result)
+                        .add(new GHCheckRunBuilder.Output(title, contents))
+                        .create())
+                        .getId();
+            }
+            cache.put(context, task, new CompletedCheckRun(id, fingerprint));
         }
         else {
             // Simply log the output of the result to the logs when in dry-run mode.
             LOGGER.info("PR #{} - Update task run '{}' with result '{}'",
                     context.pullRequest.getNumber(), task.name, result);
         }
+    }
 
-        return output;
+    /**
+     * Completes the check run as cancelled when it was marked as in progress by this execution, so that a
+     * superseded run does not leave it in progress forever.
+     */
+    synchronized void cancel() {
+        abort(Conclusion.CANCELLED, "cancelCheckRun", "Superseded", "The check was cancelled because a newer commit was pushed.");
     }
 
     /**
-     * Creates a bot task execution.
+     * Completes the check run as timed out when it was marked as in progress by this execution, so that a check
+     * that did not complete within the configured timeout does not leave it in progress forever.
+     */
+    synchronized void timedOut() {
+        abort(Conclusion.TIMED_OUT, "timeOutCheckRun", "Timed out", "The check did not complete within the configured timeout.");
+    }
+
+    private void abort(Conclusion conclusion, String operation, String title, String summary) {
+        if (completed) {
+            return;
+        }
+        completed = true;
+
+        final long checkRunId = id;
+        if (!started || context.deploymentConfig.isDryRun()) {
+            return;
+        }
+        try {
+            // Bypasses the cancellation check of the context, which would reject this call
+            context.scheduler.call(context.github, Priority.HIGH, operation, () -> context.repository.updateCheckRun(checkRunId)
+                    .withCompletedAt(Date.from(Instant.now()))
+                    .withStatus(GHCheckRun.Status.COMPLETED)
+                    .withConclusion(conclusion)
+                    .add(new GHCheckRunBuilder.Output(title, summary))
+                    .create());
+        }
+        catch (IOException e) {
+            LOGGER.warn("PR #{} - Failed to complete task run '{}' as {}", context.pullRequest.getNumber(), task.name, conclusion, e);
+        }
+    }
+
+    /**
+     * Creates a bot task execution without contacting GitHub.
+     *
+     * When the task already completed a check run on the pull request's head commit, that check run is reused
+     * rather than creating a new one, and it is only updated if the task's output changes.
      *
      * @param context the context of the task, never null
      * @param task the task to be performed, never null
+     * @param cache the cache of completed check runs, never null
      * @return the execution context of the task; never null
-     * @throws IOException if an exception occurred creating the execution context
      */
-    static CheckRun create(CheckContext context, Check task) throws IOException {
+    static CheckRun create(CheckContext context, Check task, CheckRunCache cache) {
         if (!context.deploymentConfig.isDryRun()) {
-            // When not a dry-run, update GitHub
-            GHCheckRun checkRun = context.repository
-                    .createCheckRun(task.name, context.pullRequest.getHead().getSha())
-                    .withStartedAt(Date.from(Instant.now()))
-                    .withStatus(GHCheckRun.Status.IN_PROGRESS)
-                    .create();
-            return new CheckRun(context, task, checkRun.getId());
-        }
-        else {
-            // Simply log the output of the result to the logs when in dry-run mode.
-            LOGGER.info("PR #{} - Creating task '{}'", context.pullRequest.getNumber(), task.name);
-            return new CheckRun(context, task, 42L);
+            CompletedCheckRun completed = cache.get(context, task);
+            if (completed != null) {
+                return new CheckRun(context, task, completed.id(), cache, completed.fingerprint());
+            }
         }
+        return new CheckRun(context, task, UNKNOWN_ID, cache, null);
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.check;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.util.LruCache;
+import io.debezium.github.bot.util.PullRequestKey;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Remembers the check runs completed by the bot per commit along with a fingerprint of their output,
+ * so that re-running a check on the same commit only writes to GitHub when the output changed.
+ *
+ * The latest output of every check is also kept per pull request along with the state of the inputs it was
+ * computed from, so that it can be carried forward by events that did not change any input of the check. The
+ * outputs of a pull request are dropped when one of its events is not processed completely, as the inputs it
+ * changed would otherwise not be checked until they change again.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class CheckRunCache {
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    private LruCache<Key, CompletedCheckRun> checkRuns;
+    private LruCache<PullRequestKey, Map<String, CachedOutput>> outputs;
+
+    @PostConstruct
+    void initialize() {
+        checkRuns = new LruCache<>(deploymentConfig.getPullRequestCacheSize());
+        outputs = new LruCache<>(deploymentConfig.getPullRequestCacheSize());
+    }
+
+    CompletedCheckRun get(CheckContext context, Check check) {
+        return checkRuns.get(Key.of(context, check));
+    }
+
+    void put(CheckContext context, Check check, CompletedCheckRun checkRun) {
+        checkRuns.put(Key.of(context, check), checkRun);
+    }
+
+    CheckRunOutput getOutput(PullRequestKey key, Check check, String inputState) {
+        final Map<String, CachedOutput> checks = outputs.get(key);
+        final CachedOutput cached = checks != null ? checks.get(check.name) : null;
+        return cached != null && cached.inputState().equals(inputState) ? cached.output() : null;
+    }
+
+    synchronized void putOutput(PullRequestKey key, Check check, String inputState, CheckRunOutput output) {
+        Map<String, CachedOutput> checks = outputs.get(key);
+        if (checks == null) {
+            checks = new ConcurrentHashMap<>();
+            outputs.put(key, checks);
+        }
+        checks.put(check.name, new CachedOutput(inputState, output));
+    }
+
+    /**
+     * Drops the outputs of all checks of a pull request, so that its next event runs every check again.
+     *
+     * @param key the pull request key; must not be null
+     */
+    public synchronized void evictOutputs(PullRequestKey key) {
+        outputs.remove(key);
+    }
+
+    /**
+     * A check run that was completed on GitHub.
+     *
+     * @param id the check run identifier
+     * @param fingerprint the fingerprint of the conclusion and output written to the check run
+     */
+    record CompletedCheckRun(long id, String fingerprint) {
+    }
+
+    private record Key(long repositoryId, String headSha, String name) {
+
+        static Key of(CheckContext context, Check check) {
+            return new Key(context.repository.getId(), context.getHeadSha(), check.name);
+        }
+    }
+
+    /**
+     * The output of a check along with the state of the inputs it was computed from.
+     *
+     * @param inputState the fingerprint of the inputs the check depends on
+     * @param output the output
+     */
+    private record CachedOutput(String inputState, CheckRunOutput output) {
+    }
+}
@@ -7,22 +7,24 @@
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * The output of a CheckRun.
  *
+ * Once the check has run, the output is sealed: the pass/fail state of its rules is computed once and cached,
+ * and rendering sizes its buffer from the cached text lengths rather than growing it.
+ *
  * @author Chris Cranford
  */
 public class CheckRunOutput {
 
     private final List<CheckRunRule> rules = new ArrayList<>();
 
-    public final long id;
     public final String name;
 
-    CheckRunOutput(long id, String name) {
-        this.id = id;
+    private volatile Summary sealed;
+
+    CheckRunOutput(String name) {
         this.name = name;
     }
 
@@ -33,18 +35,30 @@ public class CheckRunOutput {
      * @return the rule; never null
      */
     public CheckRunRule rule(String description) {
+        if (sealed != null) {
+            throw new IllegalStateException("The output of check '" + name + "' is sealed");
+        }
         CheckRunRule rule = new CheckRunRule(description);
         rules.add(rule);
         return rule;
     }
 
+    /**
+     * Seals the output once the check has run, caching the state of its rules.
+     */
+    void seal() {
+        if (sealed == null) {
+            sealed = summarize();
+        }
+    }
+
     /**
      * Checks whether all rules passed; one failure causes the run to have failed.
      *
      * @return true if all rules passed; false otherwise
      */
     public boolean passed() {
-        return rules.stream().allMatch(r -> r.passed);
+        return summary().failed() == 0;
     }
 
     /**
@@ -53,15 +67,25 @@ public boolean passed() {
      * @return the title
      */
     public final String title() {
-        List<CheckRunRule> failingRules = rules.stream().filter(r -> !r.passed).collect(Collectors.toList());
-        if (failingRules.isEmpty()) {
-            return "All rules passed";
+        return title(OutputTemplates.DEFAULT);
+    }
+
+    /**
+     * Get the title that should be displayed for the output.
+     *
+     * @param templates the templates to render with; must not be null
+     * @return the title
+     */
+    public final String title(OutputTemplates templates) {
+        final Summary summary = summary();
+        if (summary.failed() == 0) {
+            return templates.titlePassed;
         }
-        else if (failingRules.size() == 1) {
-            return failingRules.get(0).description;
+        else if (summary.failed() == 1) {
+            return summary.firstFailed().description;
         }
         else {
-            return failingRules.size() + " rules failed";
+            return templates.titleFailed.render(Integer.toString(summary.failed()));
         }
     }
 
@@ -71,8 +95,18 @@ else if (failingRules.size() == 1) {
      * @return the contents
      */
     public final String contents() {
-        StringBuilder builder = new StringBuilder();
-        appendRules(builder, true);
+        return contents(OutputTemplates.DEFAULT);
+    }
+
+    /**
+     * Get the contents that should be displayed in the output.
+     *
+     * @param templates the templates to render with; must not be null
+     * @return the contents
+     */
+    public final String contents(OutputTemplates templates) {
+        StringBuilder builder = new StringBuilder(length(templates, true));
+        appendRules(builder, true, templates);
         return builder.toString();
     }
 
@@ -84,10 +118,35 @@ public final String contents() {
      * @param builder the builder; must not be null
      */
     public void appendFailingRules(StringBuilder builder) {
-        appendRules(builder, false);
+        appendFailingRules(builder, OutputTemplates.DEFAULT);
     }
 
-    private void appendRules(StringBuilder builder, boolean includePassed) {
+    /**
+     * Appends the failing and always included rules to the builder, see {@link #appendFailingRules(StringBuilder)}.
+     *
+     * @param builder the builder; must not be null
+     * @param templates the templates to render with; must not be null
+     */
+    public void appendFailingRules(StringBuilder builder, OutputTemplates templates) {
+        appendRules(builder, false, templates);
+    }
+
+    /**
+     * Get the length of the rendered rules, used to size the buffer they are rendered into.
+     *
+     * @param templates the templates to render with; must not be null
+     * @param includePassed whether passed rules are rendered
+     * @return the length of the rendered rules
+     */
+    public int length(OutputTemplates templates, boolean includePassed) {
+        final Summary summary = summary();
+        final Layout layout = includePassed ? summary.all() : summary.failing();
+        return layout.rules() * (templates.rule.literalLength() + templates.iconLength)
+                + layout.comments() * templates.ruleComment.literalLength()
+                + layout.textLength();
+    }
+
+    private void appendRules(StringBuilder builder, boolean includePassed, OutputTemplates templates) {
         for (CheckRunRule rule : rules) {
             // Check whether rule should be included
             if (rule.passed && !includePassed && !rule.alwaysIncluded) {
@@ -95,15 +154,73 @@ private void appendRules(StringBuilder builder, boolean includePassed) {
             }
 
             // Gather the icon; preferring the rule's overridden icon from those defined here
-            String icon = rule.icon != null ? rule.icon : (rule.passed ? "✔" : "❌");
+            String icon = rule.icon != null ? rule.icon : (rule.passed ? templates.iconPassed : templates.iconFailed);
 
             // Add the description
-            builder.append("\n").append(icon).append("\u00A0").append(rule.description);
+            templates.rule.appendTo(builder, icon, rule.description);
 
             // If there are comments, add each one as one line below each entry
             for (String comment : rule.comments) {
-                builder.append("\n\u00A0\u00A0\u00A0\u00A0↳\u00A0").append(comment);
+                templates.ruleComment.appendTo(builder, comment);
+            }
+        }
+    }
+
+    private Summary summary() {
+        final Summary summary = sealed;
+        return summary != null ? summary : summarize();
+    }
+
+    private Summary summarize() {
+        int failed = 0;
+        CheckRunRule firstFailed = null;
+        int rulesCount = 0;
+        int commentsCount = 0;
+        int textLength = 0;
+        int failingRules = 0;
+        int failingComments = 0;
+        int failingTextLength = 0;
+        for (CheckRunRule rule : rules) {
+            int ruleLength = rule.description.length() + (rule.icon != null ? rule.icon.length() : 0);
+            for (String comment : rule.comments) {
+                ruleLength += comment.length();
+            }
+            rulesCount++;
+            commentsCount += rule.comments.size();
+            textLength += ruleLength;
+            if (!rule.passed) {
+                if (failed++ == 0) {
+                    firstFailed = rule;
+                }
+            }
+            if (!rule.passed || rule.alwaysIncluded) {
+                failingRules++;
+                failingComments += rule.comments.size();
+                failingTextLength += ruleLength;
             }
         }
+        return new Summary(failed, firstFailed, new Layout(rulesCount, commentsCount, textLength),
+                new Layout(failingRules, failingComments, failingTextLength));
+    }
+
+    /**
+     * The state of the rules of an output.
+     *
+     * @param failed the number of failed rules
+     * @param firstFailed the first failed rule; null if all rules passed
+     * @param all the layout of all rules
+     * @param failing the layout of the failed and always included rules
+     */
+    private record Summary(int failed, CheckRunRule firstFailed, Layout all, Layout failing) {
+    }
+
+    /**
+     * The amount of text of a set of rules.
+     *
+     * @param rules the number of rules
+     * @param comments the number of comments of the rules
+     * @param textLength the combined length of the descriptions, icon overrides and comments of the rules
+     */
+    private record Layout(int rules, int comments, int textLength) {
     }
 }
@@ -0,0 +1,456 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.check;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.metrics.BotMetrics;
+import io.debezium.github.bot.metrics.BotTracing;
+import io.debezium.github.bot.util.Fingerprint;
+import io.debezium.github.bot.util.PullRequestKey;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Executes a set of checks, either sequentially or concurrently on a bounded executor.
+ *
+ * When the configured check parallelism is greater than one, every check of an event is submitted at once
+ * and the outputs are joined in the order the checks were supplied, so the comment layout stays stable
+ * regardless of which check finishes first.
+ *
+ * Fast checks are run on the calling thread and their check runs are created already completed. Other checks
+ * only mark their check run as in progress when they have not finished once the configured delay elapsed, so
+ * any check that completes quickly costs a single check run call.
+ *
+ * A check that depends on none of the inputs changed by the event is not run again; its previous output for the
+ * pull request is carried forward, which only costs a check run call when the head commit changed. Outputs are
+ * only carried forward when they were computed from the same state of the inputs the check depends on.
+ *
+ * The configured timeout applies to every check on its own. A check still running once it elapsed is interrupted,
+ * its check run is completed as timed out rather than left in progress, and it is reported as failed alongside
+ * the outputs of the other checks.
+ *
+ * Each check is traced with a span named after it, below the span of the event being processed, which holds
+ * the spans of its check run writes and other GitHub calls.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class CheckRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckRunner.class);
+
+    private static final AttributeKey<Boolean> CARRIED_FORWARD = AttributeKey.booleanKey("bot.check.carried_forward");
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    @Inject
+    CheckRunCache checkRunCache;
+
+    @Inject
+    BotMetrics metrics;
+
+    @Inject
+    BotTracing tracing;
+
+    private ExecutorService executor;
+    private ExecutorService progressWriter;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void initialize() {
+        final int parallelism = deploymentConfig.getCheckParallelism();
+        if (parallelism > 1) {
+            LOGGER.info("Checks will be executed concurrently with a parallelism of {}.", parallelism);
+            executor = Executors.newFixedThreadPool(parallelism, new CheckThreadFactory("bot-check-"));
+        }
+        // Timers only; the in progress writes they trigger may wait for a rate limit pause, and must not delay
+        // other timers such as the timeouts
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CheckThreadFactory("bot-check-timer-"));
+        progressWriter = Executors.newFixedThreadPool(Math.max(1, parallelism), new CheckThreadFactory("bot-check-progress-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        scheduler.shutdownNow();
+        progressWriter.shutdownNow();
+    }
+
+    /**
+     * Runs all the supplied checks.
+     *
+     * @param context the context, must not be null
+     * @param checks the checks to execute, must not be null
+     * @param changes the inputs changed by the event, must not be null
+     * @return the outputs of the checks in the same order as the checks; never null
+     * @throws IOException if any check failed
+     */
+    public List<CheckRunOutput> run(CheckContext context, List<Check> checks, Set<CheckInput> changes) throws IOException {
+        final PullRequestKey key = PullRequestKey.of(context.repository, context.pullRequest);
+        final CheckRunOutput[] outputs = new CheckRunOutput[checks.size()];
+        final Map<Integer, Future<CheckRunOutput>> futures = new LinkedHashMap<>();
+        // Checks running on the executor are traced below the span of the calling thread
+        final Context parent = Context.current();
+        final long timeout = deploymentConfig.getCheckTimeout().toNanos();
+
+        final String[] inputStates = new String[checks.size()];
+        final CheckRunOutput[] previous = new CheckRunOutput[checks.size()];
+        for (int i = 0; i < checks.size(); i++) {
+            inputStates[i] = inputState(context, checks.get(i));
+            // The output is only reused if it was computed from the inputs the event found, as an earlier event
+            // that changed them may not have been processed
+            if (Collections.disjoint(checks.get(i).dependsOn(), changes)) {
+                previous[i] = checkRunCache.getOutput(key, checks.get(i), inputStates[i]);
+            }
+        }
+
+        final long[] deadlines = new long[checks.size()];
+        try {
+            if (executor != null) {
+                for (int i = 0; i < checks.size(); i++) {
+                    final Check check = checks.get(i);
+                    if (!check.isFast() && previous[i] == null) {
+                        final String inputState = inputStates[i];
+                        final long deadline = System.nanoTime() + timeout;
+                        deadlines[i] = deadline;
+                        futures.put(i, executor.submit(() -> runCheck(context, key, check, inputState, deadline, parent)));
+                    }
+                }
+            }
+
+            // Carried forward and fast checks first, these only evaluate local data
+            for (int i = 0; i < checks.size(); i++) {
+                if (previous[i] != null) {
+                    outputs[i] = carryForward(context, checks.get(i), previous[i], parent);
+                }
+                else if (checks.get(i).isFast()) {
+                    outputs[i] = runCheck(context, key, checks.get(i), inputStates[i], System.nanoTime() + timeout, parent);
+                }
+            }
+
+            for (int i = 0; i < checks.size(); i++) {
+                if (outputs[i] == null) {
+                    outputs[i] = executor != null ? await(context, futures.get(i), checks.get(i), deadlines[i])
+                            : runCheckUntil(context, key, checks.get(i), inputStates[i], System.nanoTime() + timeout, parent);
+                }
+            }
+        }
+        catch (RunCancelledException e) {
+            // The other checks stop at their next call as well; let them cancel their own check runs rather
+            // than interrupting them
+            awaitQuietly(futures.values(), System.nanoTime() + timeout);
+            throw e;
+        }
+        finally {
+            // Only has an effect when a prior check failed
+            futures.values().forEach(future -> future.cancel(true));
+        }
+        return Arrays.asList(outputs);
+    }
+
+    /**
+     * Runs a check on the calling thread, interrupting it once the deadline passed like a check that timed out on
+     * the executor, so that a pending GitHub call is stopped.
+     */
+    private CheckRunOutput runCheckUntil(CheckContext context, PullRequestKey key, Check check, String inputState, long deadline,
+                                        Context parent)
+            throws IOException {
+        final long remaining = deadline - System.nanoTime();
+        final Interrupter interrupter = new Interrupter(Thread.currentThread());
+        final ScheduledFuture<?> timeout = scheduler.schedule(interrupter, remaining, TimeUnit.NANOSECONDS);
+        try {
+            return runCheck(context, key, check, inputState, deadline, parent);
+        }
+        catch (RunCancelledException e) {
+            throw e;
+        }
+        catch (IOException | RuntimeException e) {
+            if (interrupter.disarm()) {
+                return timedOut(context, check, e);
+            }
+            throw e;
+        }
+        finally {
+            timeout.cancel(false);
+            if (interrupter.disarm()) {
+                // The calling thread goes on processing other events
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private CheckRunOutput runCheck(CheckContext context, PullRequestKey key, Check check, String inputState, long deadline,
+                                    Context parent)
+            throws IOException {
+        final Timer.Sample sample = metrics.start();
+        final Span span = startSpan(context, check, parent);
+        String outcome = BotMetrics.OUTCOME_ERROR;
+        try (Scope scope = span.makeCurrent()) {
+            final CheckRunOutput output = publishCheck(context, check, deadline);
+            checkRunCache.putOutput(key, check, inputState, output);
+            outcome = output.passed() ? BotMetrics.OUTCOME_SUCCESS : BotMetrics.OUTCOME_FAILURE;
+            return output;
+        }
+        catch (RunCancelledException e) {
+            outcome = BotMetrics.OUTCOME_CANCELLED;
+            throw e;
+        }
+        catch (IOException | RuntimeException e) {
+            if (deadline - System.nanoTime() <= 0) {
+                outcome = BotMetrics.OUTCOME_TIMEOUT;
+            }
+            // The inputs changed by the event are only checked again once all checks run
+            checkRunCache.evictOutputs(key);
+            tracing.failed(span, e);
+            throw e;
+        }
+        finally {
+            metrics.checkCompleted(sample, check.name, outcome);
+            tracing.end(span, outcome);
+        }
+    }
+
+    private CheckRunOutput carryForward(CheckContext context, Check check, CheckRunOutput output, Context parent) throws IOException {
+        LOGGER.debug("PR #{} - Inputs of check '{}' unchanged, reusing its previous output", context.pullRequest.getNumber(), check.name);
+        final Span span = startSpan(context, check, parent);
+        span.setAttribute(CARRIED_FORWARD, true);
+        try (Scope scope = span.makeCurrent()) {
+            // Skipped when the check run on the head commit already shows this output
+            CheckRun.create(context, check, checkRunCache).complete(output);
+        }
+        catch (IOException | RuntimeException e) {
+            tracing.failed(span, e);
+            throw e;
+        }
+        finally {
+            span.end();
+        }
+        metrics.checkCarriedForward(check.name);
+        return output;
+    }
+
+    /**
+     * Computes the fingerprint of the inputs a check depends on, as found by the event being processed.
+     *
+     * Checks that depend on the commits or files depend on the head and base commits, so their output is not
+     * carried forward to another head commit or once the base branch moved.
+     *
+     * @param context the context; never null
+     * @param check the check; never null
+     * @return the fingerprint; never null
+     */
+    private static String inputState(CheckContext context, Check check) {
+        final Set<CheckInput> inputs = check.dependsOn();
+        final boolean commits = inputs.contains(CheckInput.COMMITS) || inputs.contains(CheckInput.FILES);
+        return Fingerprint.of(
+                inputs.contains(CheckInput.TITLE) ? context.getTitle() : null,
+                inputs.contains(CheckInput.BODY) ? context.getBody() : null,
+                commits ? context.getHeadSha() : null,
+                commits ? context.getBaseSha() : null);
+    }
+
+    private Span startSpan(CheckContext context, Check check, Context parent) {
+        final Span span = tracing.startPullRequestSpan("check " + check.name, parent, context.pullRequest.getNumber(),
+                context.getHeadSha());
+        span.setAttribute(BotTracing.CHECK, check.name);
+        return span;
+    }
+
+    private CheckRunOutput publishCheck(CheckContext context, Check check, long deadline) throws IOException {
+        final CheckRun run = CheckRun.create(context, check, checkRunCache);
+        final long delay = deploymentConfig.getCheckInProgressDelay().toMillis();
+
+        try {
+            final CheckRunOutput output;
+            if (check.isFast()) {
+                output = run.run();
+            }
+            else if (delay <= 0) {
+                run.start();
+                output = run.run();
+            }
+            else {
+                // Only show the check run as in progress if the check is still running once the delay elapsed
+                ScheduledFuture<?> inProgress = scheduler.schedule(() -> progressWriter.execute(() -> start(run, check)), delay,
+                        TimeUnit.MILLISECONDS);
+                try {
+                    output = run.run();
+                }
+                finally {
+                    inProgress.cancel(false);
+                }
+            }
+
+            run.complete(output);
+            return output;
+        }
+        catch (RunCancelledException e) {
+            run.cancel();
+            throw e;
+        }
+        catch (IOException | RuntimeException e) {
+            if (deadline - System.nanoTime() <= 0) {
+                // Interrupted because the checks timed out; the interrupt would also stop updating the check run
+                final boolean interrupted = Thread.interrupted();
+                run.timedOut();
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void start(CheckRun run, Check check) {
+        try {
+            run.start();
+        }
+        catch (RunCancelledException e) {
+            // The check itself stops at its next call and cancels its check run
+        }
+        catch (IOException e) {
+            LOGGER.warn("Failed to mark check '{}' as in progress", check.name, e);
+        }
+    }
+
+    private void awaitQuietly(Collection<Future<CheckRunOutput>> pending, long deadline) {
+        for (Future<CheckRunOutput> future : pending) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch (ExecutionException | TimeoutException | CancellationException e) {
+                // Only waiting for the check to stop
+            }
+        }
+    }
+
+    private CheckRunOutput await(CheckContext context, Future<CheckRunOutput> future, Check check, long deadline) throws IOException {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        catch (TimeoutException e) {
+            // Interrupts the check, which completes its check run as timed out
+            future.cancel(true);
+            return timedOut(context, check, e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for check '" + check.name + "'");
+        }
+        catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Check '" + check.name + "' failed", cause);
+        }
+    }
+
+    /**
+     * Creates the failed output of a check that did not complete within the timeout, so that the outputs of the
+     * other checks are still reported.
+     */
+    private CheckRunOutput timedOut(CheckContext context, Check check, Throwable cause) {
+        final long timeout = deploymentConfig.getCheckTimeout().toMillis();
+        LOGGER.warn("PR #{} - Check '{}' did not complete within {}ms", context.pullRequest.getNumber(), check.name, timeout, cause);
+        final CheckRunOutput output = new CheckRunOutput(check.name);
+        output.rule("The check '" + check.name + "' completes in time")
+                .failed("The check did not complete within " + timeout + "ms; it runs again with the next change of the pull request.");
+        output.seal();
+        return output;
+    }
+
+    /**
+     * Interrupts a thread running a check once the deadline passed, unless it was disarmed before.
+     */
+    private static class Interrupter implements Runnable {
+
+        private final Thread thread;
+        private boolean armed = true;
+        private boolean fired;
+
+        Interrupter(Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (armed) {
+                fired = true;
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * Prevents the thread from being interrupted from now on.
+         *
+         * @return true if the thread was interrupted before
+         */
+        synchronized boolean disarm() {
+            armed = false;
+            return fired;
+        }
+    }
+
+    private static class CheckThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+        private final String prefix;
+
+        CheckThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.check;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.github.bot.config.DeploymentConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Provides the compiled {@link OutputTemplates} of each repository.
+ *
+ * Templates are configured with the {@code templates} properties of the deployment configuration, and may be
+ * overridden by a templates file. The file is a properties file whose keys are either template keys, i.e.
+ * {@code comment-failed}, which apply to all repositories, or template keys prefixed with a repository name,
+ * i.e. {@code debezium/debezium.comment-failed}, which only apply to that repository.
+ *
+ * All templates are compiled once at startup; invalid templates are reported and the previously configured
+ * templates are used instead.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class OutputTemplateRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutputTemplateRegistry.class);
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    private OutputTemplates defaults = OutputTemplates.DEFAULT;
+    private Map<String, OutputTemplates> repositories = Map.of();
+
+    @PostConstruct
+    void initialize() {
+        try {
+            defaults = OutputTemplates.compile(deploymentConfig.getTemplates());
+        }
+        catch (IllegalArgumentException e) {
+            LOGGER.error("Invalid templates configured; the built-in templates are used.", e);
+        }
+        deploymentConfig.getTemplatesFile().ifPresent(file -> load(Path.of(file)));
+    }
+
+    /**
+     * Get the templates of a repository.
+     *
+     * @param repositoryName the full name of the repository, i.e. {@code debezium/debezium}; must not be null
+     * @return the templates; never null
+     */
+    public OutputTemplates forRepository(String repositoryName) {
+        return repositories.getOrDefault(repositoryName.toLowerCase(Locale.ROOT), defaults);
+    }
+
+    private void load(Path file) {
+        final Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        catch (IOException e) {
+            LOGGER.error("Unable to read the templates file {}; the configured templates are used.", file, e);
+            return;
+        }
+
+        final Map<String, String> shared = new HashMap<>();
+        final Map<String, Map<String, String>> perRepository = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            // Template keys contain no dots, unlike repository names
+            final int separator = name.lastIndexOf('.');
+            if (separator < 0) {
+                shared.put(name, properties.getProperty(name));
+            }
+            else {
+                perRepository.computeIfAbsent(name.substring(0, separator).toLowerCase(Locale.ROOT), repository -> new HashMap<>())
+                        .put(name.substring(separator + 1), properties.getProperty(name));
+            }
+        }
+
+        try {
+            final OutputTemplates fileDefaults = defaults.with(shared);
+            final Map<String, OutputTemplates> fileRepositories = new HashMap<>();
+            perRepository.forEach((repository, templates) -> fileRepositories.put(repository, fileDefaults.with(templates)));
+            defaults = fileDefaults;
+            repositories = fileRepositories;
+            LOGGER.info("Loaded the templates file {} with templates for {} repositories.", file, fileRepositories.size());
+        }
+        catch (IllegalArgumentException e) {
+            LOGGER.error("Invalid templates in file {}; the configured templates are used.", file, e);
+        }
+    }
+}
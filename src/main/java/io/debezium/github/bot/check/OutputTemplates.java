@@ -0,0 +1,153 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.check;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.debezium.github.bot.util.MessageTemplate;
+
+/**
+ * The compiled templates the bot comment and the check run outputs are rendered with.
+ *
+ * Each template is identified by a key, i.e. {@code comment-failed}; templates that are not configured use the
+ * built-in wording. Templates are compiled once when they are configured, so rendering an event only appends
+ * literal text and values to a buffer.
+ *
+ * <ul>
+ *     <li>{@code comment-passed}, {@code comment-failed}: the start of the comment</li>
+ *     <li>{@code comment-footer}: the end of the comment</li>
+ *     <li>{@code rule}: a rule, with the {@code {icon}} and {@code {description}} placeholders</li>
+ *     <li>{@code rule-comment}: a line below a rule, with the {@code {comment}} placeholder</li>
+ *     <li>{@code icon-passed}, {@code icon-failed}: the icons of passed and failed rules</li>
+ *     <li>{@code title-passed}: the check run title when all rules passed</li>
+ *     <li>{@code title-failed}: the check run title when several rules failed, with the {@code {count}} placeholder</li>
+ * </ul>
+ *
+ * @author Chris Cranford
+ */
+public class OutputTemplates {
+
+    public static final String COMMENT_PASSED = "comment-passed";
+    public static final String COMMENT_FAILED = "comment-failed";
+    public static final String COMMENT_FOOTER = "comment-footer";
+    public static final String RULE = "rule";
+    public static final String RULE_COMMENT = "rule-comment";
+    public static final String ICON_PASSED = "icon-passed";
+    public static final String ICON_FAILED = "icon-failed";
+    public static final String TITLE_PASSED = "title-passed";
+    public static final String TITLE_FAILED = "title-failed";
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put(COMMENT_PASSED, "Thanks for your pull request!\n\n"
+                + "This pull request appears to follow the contribution rules. :+1:\n");
+        DEFAULTS.put(COMMENT_FAILED, "Thanks for your pull request!\n\n"
+                + "This pull request does not follow the contribution rules. Could you please review?\n");
+        DEFAULTS.put(COMMENT_FOOTER, "\n\n---\n\n:robot: This is an auto-generated message.");
+        DEFAULTS.put(RULE, "\n{icon}\u00A0{description}");
+        DEFAULTS.put(RULE_COMMENT, "\n\u00A0\u00A0\u00A0\u00A0↳\u00A0{comment}");
+        DEFAULTS.put(ICON_PASSED, "✔");
+        DEFAULTS.put(ICON_FAILED, "❌");
+        DEFAULTS.put(TITLE_PASSED, "All rules passed");
+        DEFAULTS.put(TITLE_FAILED, "{count} rules failed");
+    }
+
+    /**
+     * The built-in templates.
+     */
+    public static final OutputTemplates DEFAULT = new OutputTemplates(DEFAULTS);
+
+    private final Map<String, String> templates;
+
+    final MessageTemplate commentPassed;
+    final MessageTemplate commentFailed;
+    final MessageTemplate commentFooter;
+    final MessageTemplate rule;
+    final MessageTemplate ruleComment;
+    final MessageTemplate titleFailed;
+    final String iconPassed;
+    final String iconFailed;
+    final String titlePassed;
+    final int iconLength;
+
+    private OutputTemplates(Map<String, String> templates) {
+        this.templates = templates;
+        this.commentPassed = MessageTemplate.compile(templates.get(COMMENT_PASSED));
+        this.commentFailed = MessageTemplate.compile(templates.get(COMMENT_FAILED));
+        this.commentFooter = MessageTemplate.compile(templates.get(COMMENT_FOOTER));
+        this.rule = MessageTemplate.compile(templates.get(RULE), "icon", "description");
+        this.ruleComment = MessageTemplate.compile(templates.get(RULE_COMMENT), "comment");
+        this.titleFailed = MessageTemplate.compile(templates.get(TITLE_FAILED), "count");
+        this.iconPassed = templates.get(ICON_PASSED);
+        this.iconFailed = templates.get(ICON_FAILED);
+        this.titlePassed = templates.get(TITLE_PASSED);
+        this.iconLength = Math.max(iconPassed.length(), iconFailed.length());
+    }
+
+    /**
+     * Compiles the built-in templates overridden by the supplied templates.
+     *
+     * @param overrides the templates by key; must not be null
+     * @return the compiled templates; never null
+     * @throws IllegalArgumentException if a key is not known or a template uses an unknown placeholder
+     */
+    public static OutputTemplates compile(Map<String, String> overrides) {
+        return DEFAULT.with(overrides);
+    }
+
+    /**
+     * Compiles these templates overridden by the supplied templates.
+     *
+     * @param overrides the templates by key; must not be null
+     * @return the compiled templates; this instance if there are no overrides
+     * @throws IllegalArgumentException if a key is not known or a template uses an unknown placeholder
+     */
+    public OutputTemplates with(Map<String, String> overrides) {
+        return overrides.isEmpty() ? this : new OutputTemplates(merge(templates, overrides));
+    }
+
+    /**
+     * Appends the start of the bot comment.
+     *
+     * @param builder the buffer; must not be null
+     * @param passed whether all checks passed
+     */
+    public void appendCommentIntro(StringBuilder builder, boolean passed) {
+        (passed ? commentPassed : commentFailed).appendTo(builder);
+    }
+
+    /**
+     * Appends the end of the bot comment.
+     *
+     * @param builder the buffer; must not be null
+     */
+    public void appendCommentFooter(StringBuilder builder) {
+        commentFooter.appendTo(builder);
+    }
+
+    /**
+     * Get the length of the bot comment without the rules, used to size the buffer it is rendered into.
+     *
+     * @param passed whether all checks passed
+     * @return the length
+     */
+    public int commentLength(boolean passed) {
+        return (passed ? commentPassed : commentFailed).literalLength() + commentFooter.literalLength();
+    }
+
+    private static Map<String, String> merge(Map<String, String> templates, Map<String, String> overrides) {
+        final Map<String, String> merged = new LinkedHashMap<>(templates);
+        overrides.forEach((key, template) -> {
+            if (!DEFAULTS.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown template '" + key + "', expected one of " + DEFAULTS.keySet());
+            }
+            merged.put(key, template);
+        });
+        return merged;
+    }
+}
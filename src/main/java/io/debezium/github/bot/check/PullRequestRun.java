@@ -0,0 +1,84 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.check;
+
+/**
+ * The evaluation of a pull request at a given head commit, which can be cancelled once a newer commit arrives.
+ *
+ * Cancellation is cooperative: the run is only stopped before its next GitHub call, so that no call is
+ * interrupted half way.
+ *
+ * @author Chris Cranford
+ */
+public class PullRequestRun {
+
+    private final String headSha;
+    private final long updatedAt;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates the run.
+     *
+     * @param headSha the SHA of the head commit being evaluated; must not be null
+     * @param updatedAt the last update time of the pull request state being evaluated in milliseconds since the
+     *                  epoch, or 0 if it is not known
+     */
+    public PullRequestRun(String headSha, long updatedAt) {
+        this.headSha = headSha;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Get the SHA of the head commit being evaluated.
+     *
+     * @return the head SHA; never null
+     */
+    public String getHeadSha() {
+        return headSha;
+    }
+
+    /**
+     * Get the last update time of the pull request state being evaluated.
+     *
+     * @return the update time in milliseconds since the epoch, or 0 if it is not known
+     */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Cancels the run.
+     *
+     * @return true if the run was cancelled by this call; false if it was already cancelled
+     */
+    public synchronized boolean cancel() {
+        if (cancelled) {
+            return false;
+        }
+        cancelled = true;
+        return true;
+    }
+
+    /**
+     * Check whether the run was cancelled.
+     *
+     * @return true if cancelled; false otherwise
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Stops the run if it was cancelled.
+     *
+     * @throws RunCancelledException if the run was cancelled
+     */
+    public void checkCancelled() throws RunCancelledException {
+        if (cancelled) {
+            throw new RunCancelledException("The run for head " + headSha + " was superseded by a newer commit");
+        }
+    }
+}
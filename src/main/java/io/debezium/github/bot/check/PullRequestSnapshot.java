@@ -0,0 +1,48 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.check;
+
+import java.util.List;
+
+import org.kohsuke.github.GHIssueState;
+
+/**
+ * An immutable view of a pull request, fetched once per event so that every check sees the same state.
+ *
+ * @param title the pull request title; never null
+ * @param body the pull request body; may be null
+ * @param state the pull request state; never null
+ * @param headSha the SHA of the head commit; never null
+ * @param baseSha the SHA of the base branch commit the pull request was last compared with; never null
+ * @param commits all commits of the pull request, oldest first; never null
+ * @param botComment the comment added by the bot, or null if the bot did not comment yet
+ * @author Chris Cranford
+ */
+public record PullRequestSnapshot(String title, String body, GHIssueState state, String headSha, String baseSha, List<Commit> commits,
+                                  Comment botComment) {
+
+    public PullRequestSnapshot {
+        commits = List.copyOf(commits);
+    }
+
+    /**
+     * A commit of the pull request.
+     *
+     * @param sha the commit SHA; never null
+     * @param message the commit message; never null
+     */
+    public record Commit(String sha, String message) {
+    }
+
+    /**
+     * A pull request comment.
+     *
+     * @param id the comment identifier
+     * @param body the comment body; never null
+     */
+    public record Comment(long id, String body) {
+    }
+}
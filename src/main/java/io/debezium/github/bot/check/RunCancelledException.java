@@ -0,0 +1,22 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.check;
+
+import java.io.IOException;
+
+/**
+ * Signals that the run of the checks for a pull request was cancelled, i.e. because a newer commit was pushed.
+ *
+ * @author Chris Cranford
+ */
+public class RunCancelledException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RunCancelledException(String message) {
+        super(message);
+    }
+}
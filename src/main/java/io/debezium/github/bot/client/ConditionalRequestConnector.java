@@ -0,0 +1,197 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import io.debezium.github.bot.client.GitHubResponseCache.CachedResponse;
+import io.debezium.github.bot.metrics.BotMetrics;
+
+/**
+ * A {@link GitHubConnector} that revalidates cached responses with conditional requests.
+ *
+ * Every {@code GET} request for which a response with an {@code ETag} is cached is sent with
+ * {@code If-None-Match}. GitHub answers such a request with {@code 304 Not Modified} when the resource did not
+ * change, which does not count against the rate limit; the cached response is then returned in its place with
+ * the rate limit headers of the {@code 304} response.
+ *
+ * @author Chris Cranford
+ */
+public class ConditionalRequestConnector implements GitHubConnector {
+
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+    private static final Pattern SHA = Pattern.compile("[0-9a-f]{40}");
+
+    private final GitHubConnector delegate;
+    private final GitHubResponseCache cache;
+    private final BotMetrics metrics;
+
+    public ConditionalRequestConnector(GitHubConnector delegate, GitHubResponseCache cache, BotMetrics metrics) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public GitHubConnectorResponse send(GitHubConnectorRequest request) throws IOException {
+        if (!"GET".equals(request.method())) {
+            return delegate.send(request);
+        }
+
+        final String key = request.url() + " " + request.header("Accept");
+        final String endpoint = endpoint(request.url());
+        final CachedResponse cached = cache.get(key);
+
+        final GitHubConnectorResponse response = delegate.send(cached != null ? new ConditionalRequest(request, cached.etag()) : request);
+        if (cached != null && response.statusCode() == 304) {
+            metrics.gitHubCacheLookup(endpoint, BotMetrics.CACHE_HIT);
+            final Map<String, List<String>> headers = headers(cached.headers());
+            headers.putAll(headers(response.allHeaders()));
+            response.close();
+            return new CachedConnectorResponse(request, headers, cached.body());
+        }
+
+        final String etag = response.header("ETag");
+        if (response.statusCode() != 200 || etag == null) {
+            metrics.gitHubCacheLookup(endpoint, BotMetrics.CACHE_UNCACHEABLE);
+            return response;
+        }
+
+        metrics.gitHubCacheLookup(endpoint, BotMetrics.CACHE_MISS);
+        final byte[] body;
+        try (InputStream stream = response.bodyStream()) {
+            body = stream.readAllBytes();
+        }
+        finally {
+            response.close();
+        }
+
+        // The body is stored decoded
+        final Map<String, List<String>> headers = headers(response.allHeaders());
+        headers.remove("Content-Encoding");
+        headers.remove("Content-Length");
+        cache.put(key, new CachedResponse(etag, headers, body));
+        return new CachedConnectorResponse(request, headers, body);
+    }
+
+    /**
+     * Derives a low-cardinality endpoint name from a request URL, i.e. {@code /repos/{owner}/{repo}/pulls/{id}}.
+     */
+    static String endpoint(URL url) {
+        final String[] segments = url.getPath().split("/");
+        final StringBuilder endpoint = new StringBuilder();
+        for (int i = 1; i < segments.length; i++) {
+            String segment = segments[i];
+            if ("repos".equals(segments[1]) && (i == 2 || i == 3)) {
+                segment = i == 2 ? "{owner}" : "{repo}";
+            }
+            else if (NUMBER.matcher(segment).matches()) {
+                segment = "{id}";
+            }
+            else if (SHA.matcher(segment).matches() || segment.contains("...")) {
+                segment = "{ref}";
+            }
+            endpoint.append('/').append(segment);
+        }
+        return endpoint.toString();
+    }
+
+    private static Map<String, List<String>> headers(Map<String, List<String>> source) {
+        final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        source.forEach((name, values) -> {
+            // HttpURLConnection reports the status line with a null name
+            if (name != null) {
+                headers.put(name, new ArrayList<>(values));
+            }
+        });
+        return headers;
+    }
+
+    /**
+     * A request with an added {@code If-None-Match} header.
+     */
+    private static class ConditionalRequest implements GitHubConnectorRequest {
+
+        private final GitHubConnectorRequest request;
+        private final Map<String, List<String>> headers;
+
+        ConditionalRequest(GitHubConnectorRequest request, String etag) {
+            this.request = request;
+            this.headers = headers(request.allHeaders());
+            this.headers.put("If-None-Match", List.of(etag));
+        }
+
+        @Override
+        public String method() {
+            return request.method();
+        }
+
+        @Override
+        public Map<String, List<String>> allHeaders() {
+            return headers;
+        }
+
+        @Override
+        public String header(String name) {
+            final List<String> values = headers.get(name);
+            return values != null && !values.isEmpty() ? values.get(0) : null;
+        }
+
+        @Override
+        public String contentType() {
+            return request.contentType();
+        }
+
+        @Override
+        public InputStream body() {
+            return request.body();
+        }
+
+        @Override
+        public URL url() {
+            return request.url();
+        }
+
+        @Override
+        public boolean hasBody() {
+            return request.hasBody();
+        }
+    }
+
+    /**
+     * A response whose body is held in memory.
+     */
+    private static class CachedConnectorResponse extends GitHubConnectorResponse {
+
+        private final byte[] body;
+
+        CachedConnectorResponse(GitHubConnectorRequest request, Map<String, List<String>> headers, byte[] body) {
+            super(request, 200, headers);
+            this.body = body;
+        }
+
+        @Override
+        protected InputStream rawBodyStream() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.client;
+
+import java.io.IOException;
+
+/**
+ * A single outbound call to the GitHub API.
+ *
+ * @param <T> the result type
+ * @author Chris Cranford
+ */
+@FunctionalInterface
+public interface GitHubCall<T> {
+    /**
+     * Performs the call.
+     *
+     * @return the result of the call, may be null
+     * @throws IOException if the call failed
+     */
+    T call() throws IOException;
+}
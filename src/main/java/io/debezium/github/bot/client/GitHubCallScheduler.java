@@ -0,0 +1,365 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.kohsuke.github.GHRateLimit;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.HttpException;
+import org.kohsuke.github.PagedIterable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.metrics.BotMetrics;
+import io.debezium.github.bot.metrics.BotTracing;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Schedules all outbound GitHub calls made by the bot.
+ *
+ * The scheduler bounds the number of concurrent calls with an adaptive limit that grows slowly while calls
+ * succeed and is halved whenever GitHub signals a primary or secondary rate limit, in which case all calls are
+ * paused until the advertised reset or retry time. The remaining quota is tracked from responses; once it drops
+ * into the configured reserve, {@link Priority#LOW} and then {@link Priority#NORMAL} calls are deferred until
+ * the quota resets so that {@link Priority#HIGH} calls such as check run completions still go through.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class GitHubCallScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GitHubCallScheduler.class);
+
+    /**
+     * The page size used for paginated calls.
+     */
+    public static final int PAGE_SIZE = 100;
+
+    private static final long DEFAULT_PAUSE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long IDLE_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    @Inject
+    BotMetrics metrics;
+
+    @Inject
+    BotTracing tracing;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final int[] waiting = new int[Priority.values().length];
+
+    private int maxConcurrency;
+    private int limit;
+    private int inFlight;
+    private int successes;
+    private long pausedUntil;
+    private int remaining = Integer.MAX_VALUE;
+    private long resetAt;
+
+    @PostConstruct
+    void initialize() {
+        maxConcurrency = Math.max(1, deploymentConfig.getGitHubMaxConcurrency());
+        limit = maxConcurrency;
+    }
+
+    /**
+     * Performs a GitHub call once the scheduler admits it, retrying it when it is rejected due to rate limits.
+     *
+     * @param github the GitHub client the call is made with, used to read the remaining quota; may be null
+     * @param priority the priority of the call; must not be null
+     * @param operation the name of the operation, used for logging; must not be null
+     * @param call the call; must not be null
+     * @param <T> the result type
+     * @return the result of the call
+     * @throws IOException if the call failed, or a low priority call could not be admitted in time
+     */
+    public <T> T call(GitHub github, Priority priority, String operation, GitHubCall<T> call) throws IOException {
+        // Parent of the spans of the HTTP requests made by the call, including all pages and retries
+        final Span span = tracing.startSpan(operation);
+        span.setAttribute(BotTracing.PRIORITY, priority.name());
+        try (Scope scope = span.makeCurrent()) {
+            return execute(github, priority, operation, call, span);
+        }
+        catch (IOException | RuntimeException e) {
+            tracing.failed(span, e);
+            throw e;
+        }
+        finally {
+            span.end();
+        }
+    }
+
+    private <T> T execute(GitHub github, Priority priority, String operation, GitHubCall<T> call, Span span) throws IOException {
+        int attempt = 0;
+        while (true) {
+            final Timer.Sample admission = metrics.start();
+            acquire(priority, operation);
+            metrics.gitHubCallAdmitted(admission, priority.name());
+            span.addEvent("admitted");
+
+            final Timer.Sample sample = metrics.start();
+            String outcome = BotMetrics.OUTCOME_ERROR;
+            try {
+                T result = call.call();
+                outcome = BotMetrics.OUTCOME_SUCCESS;
+                succeeded(github);
+                return result;
+            }
+            catch (HttpException e) {
+                final boolean limited = isRateLimited(e);
+                if (limited) {
+                    outcome = BotMetrics.OUTCOME_RATE_LIMITED;
+                    span.addEvent("rate-limited");
+                    rateLimited(e, operation);
+                }
+                if (!limited || ++attempt > deploymentConfig.getGitHubMaxRetries()) {
+                    throw e;
+                }
+            }
+            finally {
+                metrics.gitHubCall(sample, operation, outcome);
+                release();
+            }
+        }
+    }
+
+    /**
+     * Fetches all pages of a paginated GitHub call once the scheduler admits it.
+     *
+     * @param github the GitHub client the call is made with, used to read the remaining quota; may be null
+     * @param priority the priority of the call; must not be null
+     * @param operation the name of the operation, used for logging; must not be null
+     * @param iterable the paginated call; must not be null
+     * @param <T> the item type
+     * @return all items; never null
+     * @throws IOException if the call failed, or a low priority call could not be admitted in time
+     */
+    public <T> List<T> list(GitHub github, Priority priority, String operation, PagedIterable<T> iterable) throws IOException {
+        final List<T> items = call(github, priority, operation, () -> iterable.withPageSize(PAGE_SIZE).toList());
+        metrics.gitHubPages(operation, Math.max(1, (items.size() + PAGE_SIZE - 1) / PAGE_SIZE));
+        return items;
+    }
+
+    /**
+     * Get the last known remaining quota.
+     *
+     * @return the remaining number of calls, or {@link Integer#MAX_VALUE} if not known
+     */
+    public int getRemainingQuota() {
+        lock.lock();
+        try {
+            return remaining;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the time at which the quota is reset.
+     *
+     * @return the reset time in epoch milliseconds, or 0 if not known
+     */
+    public long getQuotaResetTime() {
+        lock.lock();
+        try {
+            return resetAt;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the current concurrency limit.
+     *
+     * @return the maximum number of concurrent calls currently admitted
+     */
+    public int getConcurrencyLimit() {
+        lock.lock();
+        try {
+            return limit;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire(Priority priority, String operation) throws IOException {
+        final long deadline = System.currentTimeMillis() + deploymentConfig.getGitHubMaxDefer().toMillis();
+        lock.lock();
+        try {
+            waiting[priority.ordinal()]++;
+            try {
+                while (true) {
+                    final long now = System.currentTimeMillis();
+                    long throttledUntil = throttledUntil(priority, now);
+                    if (throttledUntil > now && now >= deadline) {
+                        if (priority == Priority.LOW) {
+                            throw new IOException("GitHub call '" + operation + "' deferred for longer than "
+                                    + deploymentConfig.getGitHubMaxDefer() + " due to rate limits");
+                        }
+                        // Let GitHub decide rather than blocking required work indefinitely
+                        throttledUntil = now;
+                    }
+
+                    if (throttledUntil <= now && inFlight < limit && !isHigherPriorityWaiting(priority)) {
+                        inFlight++;
+                        return;
+                    }
+
+                    final long wakeUp = throttledUntil > now ? Math.min(throttledUntil, deadline) : now + IDLE_WAIT_MILLIS;
+                    changed.await(Math.max(1, wakeUp - now), TimeUnit.MILLISECONDS);
+                }
+            }
+            finally {
+                waiting[priority.ordinal()]--;
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to call GitHub '" + operation + "'");
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            changed.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private long throttledUntil(Priority priority, long now) {
+        long until = pausedUntil;
+        if (now < resetAt && remaining <= reserveFor(priority)) {
+            until = Math.max(until, resetAt);
+        }
+        return until;
+    }
+
+    private int reserveFor(Priority priority) {
+        switch (priority) {
+            case LOW:
+                return deploymentConfig.getGitHubQuotaReserve();
+            case NORMAL:
+                return deploymentConfig.getGitHubQuotaReserve() / 2;
+            default:
+                return 0;
+        }
+    }
+
+    private boolean isHigherPriorityWaiting(Priority priority) {
+        for (int i = 0; i < priority.ordinal(); i++) {
+            if (waiting[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void succeeded(GitHub github) {
+        final GHRateLimit.Record core = github != null ? github.lastRateLimit().getCore() : null;
+        lock.lock();
+        try {
+            if (core != null) {
+                remaining = core.getRemaining();
+                resetAt = core.getResetEpochSeconds() * 1000L;
+            }
+            // Additive increase, roughly one step per window of successful calls
+            if (limit < maxConcurrency && ++successes >= limit) {
+                limit++;
+                successes = 0;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void rateLimited(HttpException e, String operation) {
+        final long now = System.currentTimeMillis();
+        final long pause = pauseMillis(e.getResponseHeaderFields(), now);
+        lock.lock();
+        try {
+            // Multiplicative decrease
+            limit = Math.max(1, limit / 2);
+            successes = 0;
+            pausedUntil = Math.max(pausedUntil, now + pause);
+            LOGGER.warn("GitHub call '{}' was rate limited (HTTP {}); pausing calls for {}ms with a concurrency limit of {}.",
+                    operation, e.getResponseCode(), pause, limit);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isRateLimited(HttpException e) {
+        if (e.getResponseCode() == 429) {
+            return true;
+        }
+        if (e.getResponseCode() == 403) {
+            // The failing limit handlers report "API rate limit reached" and "Abuse limit reached"
+            final Map<String, List<String>> headers = e.getResponseHeaderFields();
+            final String message = e.getMessage();
+            return header(headers, "Retry-After") != null
+                    || "0".equals(header(headers, "X-RateLimit-Remaining"))
+                    || (message != null && (message.contains("rate limit") || message.contains("Abuse limit")));
+        }
+        return false;
+    }
+
+    private static long pauseMillis(Map<String, List<String>> headers, long now) {
+        try {
+            final String retryAfter = header(headers, "Retry-After");
+            if (retryAfter != null) {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            }
+            final String reset = header(headers, "X-RateLimit-Reset");
+            if (reset != null) {
+                return Math.max(0, Long.parseLong(reset.trim()) * 1000L - now);
+            }
+        }
+        catch (NumberFormatException e) {
+            LOGGER.debug("Unable to parse rate limit headers", e);
+        }
+        return DEFAULT_PAUSE_MILLIS;
+    }
+
+    private static String header(Map<String, List<String>> headers, String name) {
+        if (headers != null) {
+            for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                if (name.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                    return entry.getValue().get(0);
+                }
+            }
+        }
+        return null;
+    }
+}
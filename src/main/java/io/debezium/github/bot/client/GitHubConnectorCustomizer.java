@@ -0,0 +1,58 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.client;
+
+import org.kohsuke.github.GitHubAbuseLimitHandler;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.GitHubRateLimitHandler;
+import org.kohsuke.github.connector.GitHubConnector;
+
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.metrics.BotMetrics;
+import io.debezium.github.bot.metrics.BotTracing;
+import io.quarkiverse.githubapp.GitHubCustomizer;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Sets up the connector of the GitHub clients created by the GitHub App extension.
+ *
+ * Every HTTP request is traced, see {@link TracingConnector}. When the response cache is enabled, cached
+ * responses are revalidated with conditional requests, see {@link ConditionalRequestConnector}; the tracing
+ * connector is wrapped by it so that the spans show the actual {@code 304} responses.
+ *
+ * Rate limited requests fail right away rather than waiting for the limit to reset, which the default handlers
+ * would do while the call holds a permit of the {@link GitHubCallScheduler}; the scheduler backs off instead.
+ *
+ * @author Chris Cranford
+ */
+@Singleton
+public class GitHubConnectorCustomizer implements GitHubCustomizer {
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    @Inject
+    GitHubResponseCache cache;
+
+    @Inject
+    BotMetrics metrics;
+
+    @Inject
+    BotTracing tracing;
+
+    @Override
+    public void customize(GitHubBuilder builder) {
+        GitHubConnector connector = new TracingConnector(GitHubConnector.DEFAULT, tracing.getTracer());
+        if (deploymentConfig.isGitHubCacheEnabled()) {
+            connector = new ConditionalRequestConnector(connector, cache, metrics);
+        }
+        builder.withConnector(connector)
+                .withRateLimitHandler(GitHubRateLimitHandler.FAIL)
+                .withAbuseLimitHandler(GitHubAbuseLimitHandler.FAIL);
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.util.Fingerprint;
+import io.debezium.github.bot.util.LruCache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Stores GitHub responses carrying an {@code ETag}, so that they can be revalidated with conditional requests.
+ *
+ * Responses are kept in a bounded in-memory cache backed by a bounded directory on disk, so that the cache
+ * survives restarts. Once the directory exceeds its size limit, the least recently written responses are
+ * deleted. Disk failures are logged and otherwise ignored, as the cache only saves quota.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class GitHubResponseCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GitHubResponseCache.class);
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".response";
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    private final AtomicLong diskSize = new AtomicLong();
+
+    private LruCache<String, CachedResponse> memory;
+    private Path directory;
+    private long maxDiskSize;
+
+    @PostConstruct
+    void initialize() {
+        memory = new LruCache<>(deploymentConfig.getGitHubCacheMemoryEntries());
+        directory = Path.of(deploymentConfig.getGitHubCacheDirectory());
+        maxDiskSize = deploymentConfig.getGitHubCacheDiskSize().asLongValue();
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                diskSize.set(files.mapToLong(GitHubResponseCache::size).sum());
+            }
+        }
+        catch (IOException e) {
+            LOGGER.warn("Unable to use the GitHub response cache directory {}; responses are only cached in memory.", directory, e);
+            directory = null;
+        }
+    }
+
+    /**
+     * Get the cached response for a request.
+     *
+     * @param key the request key, must not be null
+     * @return the cached response or null if none is cached
+     */
+    CachedResponse get(String key) {
+        CachedResponse response = memory.get(key);
+        if (response == null && directory != null) {
+            response = read(file(key));
+            if (response != null) {
+                memory.put(key, response);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Caches the response for a request.
+     *
+     * @param key the request key, must not be null
+     * @param response the response, must not be null
+     */
+    void put(String key, CachedResponse response) {
+        memory.put(key, response);
+        if (directory != null) {
+            write(file(key), response);
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(Fingerprint.of(key) + SUFFIX);
+    }
+
+    private CachedResponse read(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+            if (input.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            final String etag = input.readUTF();
+            final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            final int headerCount = input.readInt();
+            for (int i = 0; i < headerCount; i++) {
+                final String name = input.readUTF();
+                final int valueCount = input.readInt();
+                final List<String> values = new ArrayList<>(valueCount);
+                for (int j = 0; j < valueCount; j++) {
+                    values.add(input.readUTF());
+                }
+                headers.put(name, values);
+            }
+            final byte[] body = input.readNBytes(input.readInt());
+            return new CachedResponse(etag, headers, body);
+        }
+        catch (IOException e) {
+            LOGGER.debug("Unable to read cached GitHub response {}", file, e);
+            return null;
+        }
+    }
+
+    private void write(Path file, CachedResponse response) {
+        try {
+            final long previous = size(file);
+            final Path temporary = file.resolveSibling(file.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+            try (OutputStream stream = Files.newOutputStream(temporary); DataOutputStream output = new DataOutputStream(stream)) {
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(response.etag());
+                output.writeInt(response.headers().size());
+                for (Map.Entry<String, List<String>> header : response.headers().entrySet()) {
+                    output.writeUTF(header.getKey());
+                    output.writeInt(header.getValue().size());
+                    for (String value : header.getValue()) {
+                        output.writeUTF(value);
+                    }
+                }
+                output.writeInt(response.body().length);
+                output.write(response.body());
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (diskSize.addAndGet(size(file) - previous) > maxDiskSize) {
+                evict();
+            }
+        }
+        catch (IOException e) {
+            LOGGER.debug("Unable to write cached GitHub response {}", file, e);
+        }
+    }
+
+    /**
+     * Deletes the least recently written responses until the directory is within 90% of its size limit.
+     */
+    private synchronized void evict() throws IOException {
+        if (diskSize.get() <= maxDiskSize) {
+            return;
+        }
+        final List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(f -> f.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong(GitHubResponseCache::lastModified))
+                    .collect(Collectors.toList());
+        }
+        final long target = maxDiskSize * 9 / 10;
+        for (Path file : files) {
+            if (diskSize.get() <= target) {
+                break;
+            }
+            final long size = size(file);
+            if (Files.deleteIfExists(file)) {
+                diskSize.addAndGet(-size);
+            }
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.exists(file) ? Files.size(file) : 0;
+        }
+        catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        }
+        catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * A cached response.
+     *
+     * @param etag the entity tag of the response, never null
+     * @param headers the response headers, never null
+     * @param body the decoded response body, never null
+     */
+    record CachedResponse(String etag, Map<String, List<String>> headers, byte[] body) {
+
+        InputStream bodyStream() {
+            return new ByteArrayInputStream(body);
+        }
+    }
+}
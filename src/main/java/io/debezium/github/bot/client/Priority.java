@@ -0,0 +1,26 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.client;
+
+/**
+ * The priority of an outbound GitHub call. When quota runs low, lower priority calls are deferred first.
+ *
+ * @author Chris Cranford
+ */
+public enum Priority {
+    /**
+     * Calls that must go through for results to become visible, i.e. completing check runs.
+     */
+    HIGH,
+    /**
+     * Reads required to evaluate checks and progress updates.
+     */
+    NORMAL,
+    /**
+     * Calls whose effect is informational and may be deferred, i.e. refreshing the bot comment.
+     */
+    LOW
+}
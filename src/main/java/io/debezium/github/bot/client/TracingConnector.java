@@ -0,0 +1,104 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.client;
+
+import java.io.IOException;
+import java.net.URL;
+
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+/**
+ * A {@link GitHubConnector} that records a client span for every GitHub HTTP request.
+ *
+ * Spans are named after the low-cardinality endpoint of the request and carry the requested page, so that the
+ * pages of a paginated call show up as consecutive spans below the span of the call. The span ends once the
+ * response headers are received.
+ *
+ * @author Chris Cranford
+ */
+public class TracingConnector implements GitHubConnector {
+
+    private static final AttributeKey<String> METHOD = AttributeKey.stringKey("http.request.method");
+    private static final AttributeKey<String> URL_FULL = AttributeKey.stringKey("url.full");
+    private static final AttributeKey<String> ENDPOINT = AttributeKey.stringKey("github.endpoint");
+    private static final AttributeKey<Long> PAGE = AttributeKey.longKey("github.page");
+    private static final AttributeKey<Long> STATUS = AttributeKey.longKey("http.response.status_code");
+    private static final AttributeKey<Long> RATE_LIMIT_REMAINING = AttributeKey.longKey("github.rate_limit.remaining");
+
+    private final GitHubConnector delegate;
+    private final Tracer tracer;
+
+    public TracingConnector(GitHubConnector delegate, Tracer tracer) {
+        this.delegate = delegate;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public GitHubConnectorResponse send(GitHubConnectorRequest request) throws IOException {
+        final String endpoint = ConditionalRequestConnector.endpoint(request.url());
+        final Span span = tracer.spanBuilder(request.method() + " " + endpoint)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute(METHOD, request.method())
+                .setAttribute(URL_FULL, request.url().toString())
+                .setAttribute(ENDPOINT, endpoint)
+                .setAttribute(PAGE, page(request.url()))
+                .startSpan();
+        try (Scope scope = span.makeCurrent()) {
+            final GitHubConnectorResponse response = delegate.send(request);
+            span.setAttribute(STATUS, (long) response.statusCode());
+            if (response.statusCode() >= 400) {
+                span.setStatus(StatusCode.ERROR);
+            }
+            final String remaining = response.header("X-RateLimit-Remaining");
+            if (remaining != null) {
+                try {
+                    span.setAttribute(RATE_LIMIT_REMAINING, Long.parseLong(remaining.trim()));
+                }
+                catch (NumberFormatException e) {
+                    // Only informational
+                }
+            }
+            return response;
+        }
+        catch (IOException | RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        }
+        finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Get the page requested by a URL; GitHub returns the first page when none is requested.
+     */
+    private static long page(URL url) {
+        final String query = url.getQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("page=")) {
+                    try {
+                        return Long.parseLong(parameter.substring(5));
+                    }
+                    catch (NumberFormatException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        return 1;
+    }
+}
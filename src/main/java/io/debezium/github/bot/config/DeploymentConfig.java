@@ -5,6 +5,12 @@
  */
 package io.debezium.github.bot.config;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import io.quarkus.runtime.configuration.MemorySize;
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithName;
 
@@ -21,9 +27,123 @@ public interface DeploymentConfig {
     @WithName("jira-url")
     String getJiraUrl();
 
+    @WithName("jira-api-url")
+    String getJiraApiUrl();
+
+    @WithName("jira-token")
+    Optional<String> getJiraToken();
+
+    @WithName("jira-lookup-enabled")
+    boolean isJiraLookupEnabled();
+
+    @WithName("jira-lookup-timeout")
+    Duration getJiraLookupTimeout();
+
+    @WithName("jira-cache-size")
+    int getJiraCacheSize();
+
+    @WithName("jira-cache-ttl")
+    Duration getJiraCacheTtl();
+
     @WithName("user-name")
     String getUserName();
 
-    @WithName("issue-key-pattern")
-    String getIssueKeyPattern();
+    @WithName("issue-key-projects")
+    List<String> getIssueKeyProjects();
+
+    @WithName("issue-key-match-anywhere")
+    boolean isIssueKeyMatchAnywhere();
+
+    @WithName("commit-message-rules")
+    Optional<List<String>> getCommitMessageRules();
+
+    @WithName("check-parallelism")
+    int getCheckParallelism();
+
+    @WithName("check-timeout")
+    Duration getCheckTimeout();
+
+    @WithName("check-in-progress-delay")
+    Duration getCheckInProgressDelay();
+
+    @WithName("commit-cache-size")
+    int getCommitCacheSize();
+
+    @WithName("pull-request-cache-size")
+    int getPullRequestCacheSize();
+
+    @WithName("event-quiet-window")
+    Duration getEventQuietWindow();
+
+    @WithName("worker-pool-size")
+    int getWorkerPoolSize();
+
+    @WithName("work-queue-capacity")
+    int getWorkQueueCapacity();
+
+    @WithName("journal-enabled")
+    boolean isJournalEnabled();
+
+    @WithName("journal-file")
+    String getJournalFile();
+
+    @WithName("journal-capacity")
+    int getJournalCapacity();
+
+    @WithName("journal-flush-interval")
+    Duration getJournalFlushInterval();
+
+    @WithName("github-max-concurrency")
+    int getGitHubMaxConcurrency();
+
+    @WithName("github-max-retries")
+    int getGitHubMaxRetries();
+
+    @WithName("github-max-defer")
+    Duration getGitHubMaxDefer();
+
+    @WithName("github-quota-reserve")
+    int getGitHubQuotaReserve();
+
+    @WithName("github-cache-enabled")
+    boolean isGitHubCacheEnabled();
+
+    @WithName("github-cache-directory")
+    String getGitHubCacheDirectory();
+
+    @WithName("github-cache-memory-entries")
+    int getGitHubCacheMemoryEntries();
+
+    @WithName("github-cache-disk-size")
+    MemorySize getGitHubCacheDiskSize();
+
+    @WithName("delivery-dedup-size")
+    int getDeliveryDedupSize();
+
+    @WithName("delivery-dedup-ttl")
+    Duration getDeliveryDedupTtl();
+
+    @WithName("graphql-prefetch-enabled")
+    boolean isGraphQLPrefetchEnabled();
+
+    @WithName("backfill-on-startup")
+    boolean isBackfillOnStartup();
+
+    @WithName("backfill-parallelism")
+    int getBackfillParallelism();
+
+    @WithName("backfill-quota-floor")
+    int getBackfillQuotaFloor();
+
+    @WithName("backfill-checkpoint-file")
+    String getBackfillCheckpointFile();
+
+    @WithName("trace-logging-enabled")
+    boolean isTraceLoggingEnabled();
+
+    @WithName("templates")
+    Map<String, String> getTemplates();
+
+    @WithName("templates-file")
+    Optional<String> getTemplatesFile();
 }
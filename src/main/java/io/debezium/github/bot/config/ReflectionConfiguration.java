@@ -0,0 +1,39 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.config;
+
+import org.kohsuke.github.GHCheckRun;
+import org.kohsuke.github.GHCompare;
+import org.kohsuke.github.GHEventPayload;
+import org.kohsuke.github.GHIssueComment;
+import org.kohsuke.github.GHLabel;
+import org.kohsuke.github.GHPullRequestChanges;
+import org.kohsuke.github.GHPullRequestCommitDetail;
+import org.kohsuke.github.GHPullRequestFileDetail;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Registers the GitHub API model classes the bot reads for reflection in the native executable, including their
+ * nested classes, such as the commits of a comparison or the changes of an edited pull request.
+ *
+ * The GitHub App extension registers most of the GitHub API model by itself; this keeps the types the bot relies
+ * on explicit. {@link DeploymentConfig} needs no registration, as its implementation is generated at build time.
+ *
+ * @author Chris Cranford
+ */
+@RegisterForReflection(targets = {
+        GHCheckRun.class,
+        GHCompare.class,
+        GHEventPayload.PullRequest.class,
+        GHIssueComment.class,
+        GHLabel.class,
+        GHPullRequestChanges.class,
+        GHPullRequestCommitDetail.class,
+        GHPullRequestFileDetail.class
+})
+public class ReflectionConfiguration {
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.config;
+
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Adds a span processor writing finished spans to the log when trace logging is enabled, in addition to the
+ * OTLP export configured with the {@code quarkus.otel} properties.
+ *
+ * @author Chris Cranford
+ */
+@Singleton
+public class TracingConfiguration {
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    @Produces
+    @Singleton
+    SpanProcessor loggingSpanProcessor() {
+        if (deploymentConfig.isTraceLoggingEnabled()) {
+            return SimpleSpanProcessor.create(LoggingSpanExporter.create());
+        }
+        // An empty composite processor does nothing
+        return SpanProcessor.composite();
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.jira;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.metrics.BotMetrics;
+import io.debezium.github.bot.util.LruCache;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Resolves the state of Jira issues through the Jira REST API.
+ *
+ * All issue keys of a lookup that are not cached are resolved with a single JQL search. Results, including
+ * issues Jira reports as not existing, are cached in a size-bounded cache; keys Jira neither returns nor reports
+ * are not resolved. Entries older than the configured time to live are still returned while they are refreshed
+ * in the background, so only the first lookup of a key waits for Jira. A lookup never fails: when Jira does not
+ * answer within the configured timeout or returns an error, the affected keys are simply not part of the result
+ * and callers should treat them as valid.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class JiraClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JiraClient.class);
+
+    private static final int MAX_KEYS_PER_SEARCH = 100;
+    private static final String STATUS_CATEGORY_DONE = "done";
+
+    @Inject
+    DeploymentConfig deploymentConfig;
+
+    @Inject
+    BotMetrics metrics;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    private HttpClient client;
+    private LruCache<String, CachedIssue> cache;
+    private ExecutorService revalidator;
+
+    @PostConstruct
+    void initialize() {
+        client = HttpClient.newBuilder().connectTimeout(deploymentConfig.getJiraLookupTimeout()).build();
+        cache = new LruCache<>(deploymentConfig.getJiraCacheSize());
+        revalidator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bot-jira-revalidate");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        revalidator.shutdownNow();
+    }
+
+    /**
+     * Resolves the state of the given issues.
+     *
+     * @param keys the issue keys, must not be null
+     * @return the state of every issue that could be resolved, keyed by issue key; never null
+     */
+    public Map<String, JiraIssue> lookup(Collection<String> keys) {
+        if (!deploymentConfig.isJiraLookupEnabled() || keys.isEmpty()) {
+            return Map.of();
+        }
+
+        final long now = System.currentTimeMillis();
+        final long ttl = deploymentConfig.getJiraCacheTtl().toMillis();
+        final Map<String, JiraIssue> issues = new HashMap<>();
+        final List<String> missing = new ArrayList<>();
+        final List<String> stale = new ArrayList<>();
+        for (String key : new LinkedHashSet<>(keys)) {
+            final CachedIssue cached = cache.get(key);
+            if (cached == null) {
+                missing.add(key);
+            }
+            else {
+                issues.put(key, cached.issue());
+                if (now - cached.fetchedAt() > ttl) {
+                    stale.add(key);
+                }
+            }
+        }
+
+        if (!stale.isEmpty()) {
+            revalidate(stale);
+        }
+        if (!missing.isEmpty()) {
+            try {
+                issues.putAll(search(missing));
+            }
+            catch (InterruptedIOException e) {
+                Thread.currentThread().interrupt();
+            }
+            catch (IOException e) {
+                // Fail open, Jira being slow or unavailable must not block the checks
+                LOGGER.warn("Unable to resolve Jira issues {}: {}", missing, e.getMessage());
+            }
+        }
+        return issues;
+    }
+
+    private void revalidate(List<String> keys) {
+        final List<String> claimed = new ArrayList<>();
+        for (String key : keys) {
+            if (revalidating.add(key)) {
+                claimed.add(key);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+        revalidator.execute(() -> {
+            try {
+                search(claimed);
+            }
+            catch (IOException e) {
+                LOGGER.debug("Unable to revalidate Jira issues {}: {}", claimed, e.getMessage());
+            }
+            finally {
+                claimed.forEach(revalidating::remove);
+            }
+        });
+    }
+
+    /**
+     * Resolves the given issues with as few JQL searches as possible and caches the results.
+     */
+    private Map<String, JiraIssue> search(List<String> keys) throws IOException {
+        final Map<String, JiraIssue> issues = new HashMap<>();
+        for (int i = 0; i < keys.size(); i += MAX_KEYS_PER_SEARCH) {
+            final List<String> batch = keys.subList(i, Math.min(keys.size(), i + MAX_KEYS_PER_SEARCH));
+            final Timer.Sample sample = metrics.start();
+            String outcome = BotMetrics.OUTCOME_ERROR;
+            try {
+                issues.putAll(searchBatch(batch));
+                outcome = BotMetrics.OUTCOME_SUCCESS;
+            }
+            catch (HttpTimeoutException e) {
+                outcome = BotMetrics.OUTCOME_TIMEOUT;
+                throw e;
+            }
+            finally {
+                metrics.jiraLookup(sample, outcome);
+            }
+        }
+        return issues;
+    }
+
+    private Map<String, JiraIssue> searchBatch(List<String> keys) throws IOException {
+        // With validateQuery=warn, keys of issues that do not exist produce warnings rather than a failed query
+        final String jql = "key in (" + String.join(",", keys) + ")";
+        final URI uri = URI.create(deploymentConfig.getJiraApiUrl() + "rest/api/2/search"
+                + "?jql=" + URLEncoder.encode(jql, StandardCharsets.UTF_8)
+                + "&fields=status&validateQuery=warn&maxResults=" + keys.size());
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(deploymentConfig.getJiraLookupTimeout())
+                .header("Accept", "application/json")
+                .GET();
+        deploymentConfig.getJiraToken().ifPresent(token -> request.header("Authorization", "Bearer " + token));
+
+        final HttpResponse<byte[]> response;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while resolving Jira issues");
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Jira search returned HTTP " + response.statusCode());
+        }
+
+        final long now = System.currentTimeMillis();
+        final JsonNode result = mapper.readTree(response.body());
+        final Map<String, JiraIssue> issues = new HashMap<>();
+        for (JsonNode node : result.path("issues")) {
+            final JsonNode status = node.path("fields").path("status");
+            final String key = node.path("key").asText();
+            final boolean resolved = STATUS_CATEGORY_DONE.equals(status.path("statusCategory").path("key").asText());
+            issues.put(key, new JiraIssue(key, true, status.path("name").asText(null), resolved));
+        }
+
+        // Only keys Jira explicitly reports as not existing are not found, i.e. "An issue with key 'DBZ-1' does not
+        // exist for field 'key'."; other keys missing from the result, such as issues the token may not browse or
+        // moved issues returned under their new key, are left unresolved so that callers treat them as valid
+        final List<String> unresolved = new ArrayList<>();
+        for (String key : keys) {
+            JiraIssue issue = issues.get(key);
+            if (issue == null && isReportedMissing(result.path("warningMessages"), key)) {
+                issue = JiraIssue.notFound(key);
+                issues.put(key, issue);
+            }
+            if (issue != null) {
+                cache.put(key, new CachedIssue(issue, now));
+            }
+            else {
+                unresolved.add(key);
+            }
+        }
+        if (!unresolved.isEmpty()) {
+            LOGGER.debug("Jira search returned no issue nor warning for {}", unresolved);
+        }
+        return issues;
+    }
+
+    private static boolean isReportedMissing(JsonNode warningMessages, String key) {
+        final String quotedKey = "'" + key + "'";
+        for (JsonNode warning : warningMessages) {
+            if (warning.asText().contains(quotedKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record CachedIssue(JiraIssue issue, long fetchedAt) {
+    }
+}
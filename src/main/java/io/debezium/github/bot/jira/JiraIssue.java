@@ -0,0 +1,28 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.jira;
+
+/**
+ * The state of a Jira issue as resolved by the {@link JiraClient}.
+ *
+ * @param key the issue key, never null
+ * @param exists whether the issue exists
+ * @param status the status name, i.e. {@code Closed}; null if the issue does not exist
+ * @param resolved whether the status belongs to the done category
+ * @author Chris Cranford
+ */
+public record JiraIssue(String key, boolean exists, String status, boolean resolved) {
+
+    /**
+     * Creates the state of an issue that does not exist.
+     *
+     * @param key the issue key, must not be null
+     * @return the issue state; never null
+     */
+    public static JiraIssue notFound(String key) {
+        return new JiraIssue(key, false, null, false);
+    }
+}
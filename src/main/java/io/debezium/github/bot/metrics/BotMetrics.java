@@ -0,0 +1,262 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Central definition of the metrics recorded on the bot's hot paths, exposed through the Prometheus endpoint.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class BotMetrics {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_FAILURE = "failure";
+    public static final String OUTCOME_ERROR = "error";
+    public static final String OUTCOME_RATE_LIMITED = "rate-limited";
+    public static final String OUTCOME_TIMEOUT = "timeout";
+    public static final String OUTCOME_CANCELLED = "cancelled";
+
+    public static final String CACHE_HIT = "hit";
+    public static final String CACHE_MISS = "miss";
+    public static final String CACHE_UNCACHEABLE = "uncacheable";
+
+    @Inject
+    MeterRegistry registry;
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return the timing sample; never null
+     */
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Records the time taken by the webhook handler to accept or reject an event.
+     *
+     * @param sample the sample started when the event was received; must not be null
+     * @param action the event action; must not be null
+     */
+    public void webhookHandled(Timer.Sample sample, String action) {
+        sample.stop(timer("bot.webhook.handling", "Time spent handling pull request webhook events", "action", action));
+    }
+
+    /**
+     * Records a webhook delivery that was dropped as a duplicate of an accepted delivery.
+     *
+     * @param match what identified the duplicate, i.e. {@code delivery} or {@code event}; must not be null
+     */
+    public void duplicateDropped(String match) {
+        Counter.builder("bot.webhook.duplicates")
+                .description("Number of webhook deliveries dropped as duplicates of accepted deliveries")
+                .tag("match", match)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Records an event that was not processed.
+     *
+     * @param reason the reason the event was skipped; must not be null
+     */
+    public void eventSkipped(String reason) {
+        Counter.builder("bot.events.skipped")
+                .description("Number of pull request events that did not lead to a comment")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Exposes the number of events waiting in the work queue.
+     *
+     * @param depth the number of waiting events; must not be null
+     */
+    public void registerQueueDepth(AtomicInteger depth) {
+        Gauge.builder("bot.queue.depth", depth, AtomicInteger::get)
+                .description("Number of pull request events waiting for a worker")
+                .register(registry);
+    }
+
+    /**
+     * Records the time an event waited in the work queue before a worker picked it up.
+     *
+     * @param nanos the time waited in nanoseconds
+     */
+    public void queueWait(long nanos) {
+        timer("bot.queue.wait", "Time pull request events waited for a worker", "queue", "events")
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the time taken to run all checks of an event and update the bot comment.
+     *
+     * @param sample the sample started when processing began; must not be null
+     * @param outcome the outcome of the processing; must not be null
+     */
+    public void eventProcessed(Timer.Sample sample, String outcome) {
+        sample.stop(timer("bot.events.processing", "Time spent running checks and commenting per event", "outcome", outcome));
+    }
+
+    /**
+     * Records the time taken by a check, including publishing its check run.
+     *
+     * @param sample the sample started when the check began; must not be null
+     * @param check the check name; must not be null
+     * @param outcome the outcome of the check; must not be null
+     */
+    public void checkCompleted(Timer.Sample sample, String check, String outcome) {
+        sample.stop(Timer.builder("bot.checks")
+                .description("Time spent per check, including publishing the check run")
+                .tag("check", check)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    /**
+     * Records a check that was not run again because the event did not change any of its inputs.
+     *
+     * @param check the check name; must not be null
+     */
+    public void checkCarriedForward(String check) {
+        Counter.builder("bot.checks.carried-forward")
+                .description("Number of checks whose previous output was reused as the event did not change their inputs")
+                .tag("check", check)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Records the time taken to find the bot comment of a pull request.
+     *
+     * @param sample the sample started when the lookup began; must not be null
+     * @param source how the comment was resolved, i.e. {@code prefetch}, {@code cache} or {@code scan}; must not be null
+     */
+    public void commentLookup(Timer.Sample sample, String source) {
+        sample.stop(timer("bot.comment.lookup", "Time spent finding the bot comment", "source", source));
+    }
+
+    /**
+     * Records a bot comment resolved from the cache without scanning all comments of the pull request.
+     */
+    public void commentScanAvoided() {
+        Counter.builder("bot.comment.scans.avoided")
+                .description("Number of pull request comment scans avoided by using the cached bot comment")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Records a bot comment that was not written because its body did not change.
+     */
+    public void commentUpdateSkipped() {
+        Counter.builder("bot.comment.updates.skipped")
+                .description("Number of bot comment updates skipped because the comment body was unchanged")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Records an outbound GitHub API call.
+     *
+     * @param sample the sample started when the call was sent; must not be null
+     * @param operation the operation name; must not be null
+     * @param outcome the outcome of the call; must not be null
+     */
+    public void gitHubCall(Timer.Sample sample, String operation, String outcome) {
+        sample.stop(Timer.builder("bot.github.calls")
+                .description("Outbound GitHub API calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    /**
+     * Records the time an outbound GitHub API call waited to be admitted by the scheduler.
+     *
+     * @param sample the sample started when the call was requested; must not be null
+     * @param priority the call priority; must not be null
+     */
+    public void gitHubCallAdmitted(Timer.Sample sample, String priority) {
+        sample.stop(timer("bot.github.calls.wait", "Time GitHub API calls waited for admission", "priority", priority));
+    }
+
+    /**
+     * Records the number of pages fetched by a paginated GitHub API call.
+     *
+     * @param operation the operation name; must not be null
+     * @param pages the number of pages fetched
+     */
+    public void gitHubPages(String operation, int pages) {
+        DistributionSummary.builder("bot.github.pages")
+                .description("Pages fetched per paginated GitHub API call")
+                .tag("operation", operation)
+                .register(registry)
+                .record(pages);
+    }
+
+    /**
+     * Records the result of looking up a GitHub read in the conditional request cache.
+     *
+     * @param endpoint the endpoint, i.e. {@code /repos/{owner}/{repo}/pulls/{id}}; must not be null
+     * @param result the result, either {@link #CACHE_HIT}, {@link #CACHE_MISS} or {@link #CACHE_UNCACHEABLE}
+     */
+    public void gitHubCacheLookup(String endpoint, String result) {
+        Counter.builder("bot.github.cache")
+                .description("GitHub reads by conditional request cache result; hits do not count against the rate limit")
+                .tag("endpoint", endpoint)
+                .tag("result", result)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Records a batched Jira issue search.
+     *
+     * @param sample the sample started when the search was sent; must not be null
+     * @param outcome the outcome of the search; must not be null
+     */
+    public void jiraLookup(Timer.Sample sample, String outcome) {
+        sample.stop(timer("bot.jira.lookup", "Time spent resolving Jira issues", "outcome", outcome));
+    }
+
+    /**
+     * Records a pull request processed by the backfill.
+     *
+     * @param outcome the outcome of the processing; must not be null
+     */
+    public void backfillProcessed(String outcome) {
+        Counter.builder("bot.backfill.pull-requests")
+                .description("Number of open pull requests re-checked by the backfill")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    private Timer timer(String name, String description, String tagKey, String tagValue) {
+        return Timer.builder(name)
+                .description(description)
+                .tag(tagKey, tagValue)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
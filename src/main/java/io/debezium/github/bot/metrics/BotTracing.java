@@ -0,0 +1,104 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.metrics;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Central definition of the trace spans recorded on the bot's hot paths, exported through OpenTelemetry.
+ *
+ * A trace starts with the span of a {@code pullRequestEvent} delivery. Processing the event, running each check
+ * and every GitHub call are recorded as its descendants, down to a client span per GitHub HTTP request, so the
+ * time spent on an event can be attributed to comment pagination, commit pagination or check run writes.
+ *
+ * @author Chris Cranford
+ */
+@ApplicationScoped
+public class BotTracing {
+
+    public static final AttributeKey<Long> PULL_REQUEST_NUMBER = AttributeKey.longKey("github.pull_request.number");
+    public static final AttributeKey<String> HEAD_SHA = AttributeKey.stringKey("github.pull_request.head_sha");
+    public static final AttributeKey<String> ACTION = AttributeKey.stringKey("github.event.action");
+    public static final AttributeKey<String> DELIVERY_ID = AttributeKey.stringKey("github.delivery_id");
+    public static final AttributeKey<String> CHECK = AttributeKey.stringKey("bot.check");
+    public static final AttributeKey<String> PRIORITY = AttributeKey.stringKey("bot.priority");
+    public static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("bot.outcome");
+
+    @Inject
+    Tracer tracer;
+
+    /**
+     * Starts a span for work on a pull request.
+     *
+     * @param name the span name; must not be null
+     * @param parent the parent context, i.e. the context of the delivery for processing that happens later
+     *               on another thread; must not be null
+     * @param number the pull request number
+     * @param headSha the head commit of the pull request; may be null if not known
+     * @return the started span; never null
+     */
+    public Span startPullRequestSpan(String name, Context parent, int number, String headSha) {
+        final Span span = tracer.spanBuilder(name)
+                .setParent(parent)
+                .setAttribute(PULL_REQUEST_NUMBER, (long) number)
+                .startSpan();
+        if (headSha != null) {
+            span.setAttribute(HEAD_SHA, headSha);
+        }
+        return span;
+    }
+
+    /**
+     * Starts a span as a child of the current span.
+     *
+     * @param name the span name; must not be null
+     * @return the started span; never null
+     */
+    public Span startSpan(String name) {
+        return tracer.spanBuilder(name).startSpan();
+    }
+
+    /**
+     * Get the tracer, used where spans are created outside of CDI beans.
+     *
+     * @return the tracer; never null
+     */
+    public Tracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Ends a span with the outcome of its work.
+     *
+     * @param span the span; must not be null
+     * @param outcome the outcome, one of the {@link BotMetrics} outcomes; must not be null
+     */
+    public void end(Span span, String outcome) {
+        span.setAttribute(OUTCOME, outcome);
+        if (BotMetrics.OUTCOME_ERROR.equals(outcome) || BotMetrics.OUTCOME_TIMEOUT.equals(outcome)) {
+            span.setStatus(StatusCode.ERROR);
+        }
+        span.end();
+    }
+
+    /**
+     * Records a failure on a span.
+     *
+     * @param span the span; must not be null
+     * @param error the failure; must not be null
+     */
+    public void failed(Span span, Throwable error) {
+        span.recordException(error);
+        span.setStatus(StatusCode.ERROR);
+    }
+}
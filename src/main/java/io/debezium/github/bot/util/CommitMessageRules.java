@@ -0,0 +1,247 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A compiled set of commit message rules, evaluated together in a single pass over each commit message.
+ *
+ * Rules are declared as {@code name} or {@code name=argument}:
+ *
+ * <ul>
+ *     <li>{@code subject-max-length=N}: the subject, the first line, is at most N characters long</li>
+ *     <li>{@code blank-second-line}: the subject is followed by a blank line, or is the only line</li>
+ *     <li>{@code issue-key-prefix}: the message starts with an issue key, i.e. {@code DBZ-1234}</li>
+ *     <li>{@code forbid-prefix=P}: the message does not start with P, i.e. {@code fixup!}</li>
+ *     <li>{@code subject-pattern=R}: the subject matches the regular expression R</li>
+ *     <li>{@code forbid-pattern=R}: the subject does not contain a match of the regular expression R</li>
+ * </ul>
+ *
+ * The message is scanned once to locate the subject and the second line, which all rules then evaluate
+ * without examining the rest of the message again. Only the start of the message and the subject are
+ * examined, so the cost of a commit does not grow with the length of its message body.
+ *
+ * Instances are immutable and thread-safe.
+ *
+ * @author Chris Cranford
+ */
+public class CommitMessageRules {
+
+    private static final int MAX_RULES = Long.SIZE;
+
+    private final Rule[] rules;
+    private final IssueKeyMatcher issueKeyMatcher;
+    private final boolean needsSubject;
+
+    private CommitMessageRules(Rule[] rules, IssueKeyMatcher issueKeyMatcher) {
+        this.rules = rules;
+        this.issueKeyMatcher = issueKeyMatcher;
+        boolean needsSubject = false;
+        for (Rule rule : rules) {
+            needsSubject |= rule.pattern() != null;
+        }
+        this.needsSubject = needsSubject;
+    }
+
+    /**
+     * Compiles a set of rules.
+     *
+     * @param definitions the rule definitions; must not be null
+     * @param issueKeyMatcher the matcher of issue keys required by {@code issue-key-prefix}; must not be null
+     * @param issueKeyExample an example issue key used in rule descriptions, i.e. {@code DBZ-XXXX}; must not be null
+     * @return the compiled rules; never null
+     * @throws IllegalArgumentException if a rule definition is not valid
+     */
+    public static CommitMessageRules compile(List<String> definitions, IssueKeyMatcher issueKeyMatcher, String issueKeyExample) {
+        if (definitions.size() > MAX_RULES) {
+            throw new IllegalArgumentException("At most " + MAX_RULES + " commit message rules are supported");
+        }
+
+        final List<Rule> rules = new ArrayList<>(definitions.size());
+        for (String definition : definitions) {
+            final int separator = definition.indexOf('=');
+            final String name = (separator < 0 ? definition : definition.substring(0, separator)).trim();
+            final String argument = separator < 0 ? null : definition.substring(separator + 1);
+            rules.add(compile(name, argument, issueKeyExample));
+        }
+        return new CommitMessageRules(rules.toArray(new Rule[0]), issueKeyMatcher);
+    }
+
+    /**
+     * Get the number of rules.
+     *
+     * @return the number of rules
+     */
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * Get the description of a rule, as displayed in the check output.
+     *
+     * @param rule the index of the rule in the order the rules were declared
+     * @return the description; never null
+     */
+    public String description(int rule) {
+        return rules[rule].description();
+    }
+
+    /**
+     * Evaluates all rules against a commit message.
+     *
+     * @param message the commit message; must not be null
+     * @return a bit set of the failed rules, where bit {@code i} is set if rule {@code i} failed; 0 if all passed
+     */
+    public long evaluate(String message) {
+        // Locate the subject and check whether the second line is blank, stopping at the end of the second line
+        final int length = message.length();
+        int subjectEnd = length;
+        boolean secondLineBlank = true;
+        for (int i = 0; i < length; i++) {
+            final char c = message.charAt(i);
+            if (subjectEnd == length) {
+                if (c == '\n') {
+                    subjectEnd = i;
+                }
+            }
+            else if (c == '\n') {
+                break;
+            }
+            else if (!Character.isWhitespace(c)) {
+                secondLineBlank = false;
+                break;
+            }
+        }
+        if (subjectEnd > 0 && message.charAt(subjectEnd - 1) == '\r') {
+            subjectEnd--;
+        }
+
+        final CharSequence subject = needsSubject ? message.subSequence(0, subjectEnd) : null;
+
+        long failed = 0;
+        for (int i = 0; i < rules.length; i++) {
+            final Rule rule = rules[i];
+            final boolean passed;
+            switch (rule.type()) {
+                case SUBJECT_MAX_LENGTH:
+                    passed = subjectEnd <= rule.limit();
+                    break;
+                case BLANK_SECOND_LINE:
+                    passed = secondLineBlank;
+                    break;
+                case ISSUE_KEY_PREFIX:
+                    passed = issueKeyMatcher.matchStart(message) != null;
+                    break;
+                case FORBID_PREFIX:
+                    passed = !message.startsWith(rule.argument());
+                    break;
+                case SUBJECT_PATTERN:
+                    passed = rule.pattern().matcher(subject).matches();
+                    break;
+                case FORBID_PATTERN:
+                    passed = !rule.pattern().matcher(subject).find();
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown rule type " + rule.type());
+            }
+            if (!passed) {
+                failed |= 1L << i;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Get the subject of a commit message.
+     *
+     * @param message the commit message; must not be null
+     * @return the first line of the message; never null
+     */
+    public static String subject(String message) {
+        final int end = message.indexOf('\n');
+        return (end < 0 ? message : message.substring(0, end)).stripTrailing();
+    }
+
+    private static Rule compile(String name, String argument, String issueKeyExample) {
+        switch (name) {
+            case "subject-max-length":
+                final int limit = parseLimit(argument);
+                return new Rule(RuleType.SUBJECT_MAX_LENGTH, "Commit message subjects should not be longer than " + limit + " characters",
+                        limit, null, null);
+            case "blank-second-line":
+                return new Rule(RuleType.BLANK_SECOND_LINE, "Commit message subjects should be followed by a blank line", 0, null, null);
+            case "issue-key-prefix":
+                return new Rule(RuleType.ISSUE_KEY_PREFIX, "All commit messages should start with " + issueKeyExample + " issue key",
+                        0, null, null);
+            case "forbid-prefix":
+                requireArgument(name, argument);
+                return new Rule(RuleType.FORBID_PREFIX, "Commit messages should not start with `" + argument + "`", 0, argument, null);
+            case "subject-pattern":
+                return new Rule(RuleType.SUBJECT_PATTERN, "Commit message subjects should match `" + argument + "`", 0, argument,
+                        compilePattern(name, argument));
+            case "forbid-pattern":
+                return new Rule(RuleType.FORBID_PATTERN, "Commit message subjects should not contain `" + argument + "`", 0, argument,
+                        compilePattern(name, argument));
+            default:
+                throw new IllegalArgumentException("Unknown commit message rule '" + name + "'");
+        }
+    }
+
+    private static int parseLimit(String argument) {
+        requireArgument("subject-max-length", argument);
+        try {
+            final int limit = Integer.parseInt(argument.trim());
+            if (limit > 0) {
+                return limit;
+            }
+        }
+        catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Commit message rule 'subject-max-length' requires a positive length, but was '" + argument + "'");
+    }
+
+    private static Pattern compilePattern(String name, String argument) {
+        requireArgument(name, argument);
+        try {
+            return Pattern.compile(argument);
+        }
+        catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Commit message rule '" + name + "' has an invalid pattern '" + argument + "'", e);
+        }
+    }
+
+    private static void requireArgument(String name, String argument) {
+        if (argument == null || argument.isEmpty()) {
+            throw new IllegalArgumentException("Commit message rule '" + name + "' requires an argument, i.e. " + name + "=...");
+        }
+    }
+
+    private enum RuleType {
+        SUBJECT_MAX_LENGTH,
+        BLANK_SECOND_LINE,
+        ISSUE_KEY_PREFIX,
+        FORBID_PREFIX,
+        SUBJECT_PATTERN,
+        FORBID_PATTERN
+    }
+
+    /**
+     * A compiled rule.
+     *
+     * @param type the rule type
+     * @param description the description displayed in the check output
+     * @param limit the length limit of {@code subject-max-length} rules
+     * @param argument the argument of the rule, i.e. the forbidden prefix; null if the rule has none
+     * @param pattern the compiled pattern of pattern rules; null otherwise
+     */
+    private record Rule(RuleType type, String description, int limit, String argument, Pattern pattern) {
+    }
+}
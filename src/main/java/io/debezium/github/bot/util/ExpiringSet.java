@@ -0,0 +1,94 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.util;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread-safe, size-bounded set whose elements expire a fixed time after they were added.
+ *
+ * Unlike {@link LruCache}, the set does not use a global lock: membership is kept in a concurrent map and the
+ * insertion order in a concurrent queue, from whose head expired and excess elements are evicted on insertion.
+ *
+ * @param <T> the element type
+ * @author Chris Cranford
+ */
+public class ExpiringSet<T> {
+
+    private final ConcurrentMap<T, Long> elements = new ConcurrentHashMap<>();
+    private final Queue<Insertion<T>> insertions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxSize;
+    private final long timeToLive;
+
+    /**
+     * Creates the set.
+     *
+     * @param maxSize the maximum number of elements retained by the set
+     * @param timeToLive the time after which an element expires, must not be null
+     */
+    public ExpiringSet(int maxSize, Duration timeToLive) {
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive.toNanos();
+    }
+
+    /**
+     * Adds an element unless it is already present and not expired.
+     *
+     * @param element the element, must not be null
+     * @return true if the element was added; false if it was already present
+     */
+    public boolean add(T element) {
+        final long now = System.nanoTime();
+        evict(now);
+
+        final Long expiresAt = now + timeToLive;
+        final Long previous = elements.putIfAbsent(element, expiresAt);
+        if (previous != null && (previous - now > 0 || !elements.replace(element, previous, expiresAt))) {
+            // Present and not expired, or concurrently added by another thread
+            return false;
+        }
+
+        insertions.add(new Insertion<>(element, expiresAt));
+        if (size.incrementAndGet() > maxSize) {
+            evictEldest();
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of elements, including expired elements not evicted yet.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return elements.size();
+    }
+
+    private void evict(long now) {
+        Insertion<T> eldest;
+        while ((eldest = insertions.peek()) != null && eldest.expiresAt - now <= 0) {
+            evictEldest();
+        }
+    }
+
+    private void evictEldest() {
+        final Insertion<T> eldest = insertions.poll();
+        if (eldest != null) {
+            size.decrementAndGet();
+            // Only removes the element when it was not added again since
+            elements.remove(eldest.element, eldest.expiresAt);
+        }
+    }
+
+    private record Insertion<T>(T element, Long expiresAt) {
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.util;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Matches Jira issue keys, such as {@code DBZ-1234}, of a fixed set of projects.
+ *
+ * The project keys are compiled into a prefix trie. Matching walks the trie from a given offset, so every
+ * character is examined at most once per candidate start without any backtracking, regardless of how many
+ * projects are configured. Project keys are matched case-insensitively and returned in upper case.
+ *
+ * Instances are immutable and thread-safe.
+ *
+ * @author Chris Cranford
+ */
+public class IssueKeyMatcher {
+
+    // A-Z, 0-9 and underscore, the characters allowed in Jira project keys
+    private static final int ALPHABET_SIZE = 37;
+
+    private final Node root = new Node();
+
+    /**
+     * Creates a matcher for the given projects.
+     *
+     * @param projects the Jira project keys, i.e. {@code DBZ}; must not be null or empty
+     * @throws IllegalArgumentException if a project key is not a valid Jira project key
+     */
+    public IssueKeyMatcher(Collection<String> projects) {
+        if (projects.isEmpty()) {
+            throw new IllegalArgumentException("At least one Jira project key is required");
+        }
+        for (String project : projects) {
+            add(project.trim());
+        }
+    }
+
+    /**
+     * Matches an issue key starting exactly at the given offset.
+     *
+     * @param text the text to examine; must not be null
+     * @param offset the offset the key must start at
+     * @return the upper-case issue key or null if no issue key starts at the offset
+     */
+    public String matchAt(CharSequence text, int offset) {
+        final int length = text.length();
+        Node node = root;
+        String key = null;
+        int i = offset;
+        while (i < length) {
+            final Node next = node.children[index(text.charAt(i))];
+            if (next == null) {
+                break;
+            }
+            node = next;
+            i++;
+            // Project keys never contain a dash, so at most one terminal node can be followed by the issue number
+            if (node.project != null && i + 1 < length && text.charAt(i) == '-' && isDigit(text.charAt(i + 1))) {
+                int end = i + 2;
+                while (end < length && isDigit(text.charAt(end))) {
+                    end++;
+                }
+                // The number must end at a word boundary, so DBZ-12a is not an issue key
+                if (end == length || !isWordCharacter(text.charAt(end))) {
+                    key = node.project + text.subSequence(i + 1, end);
+                }
+                break;
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Matches an issue key at the start of the text.
+     *
+     * @param text the text to examine; may be null
+     * @return the upper-case issue key or null if the text does not start with an issue key
+     */
+    public String matchStart(CharSequence text) {
+        return text != null ? matchAt(text, 0) : null;
+    }
+
+    /**
+     * Finds all issue keys in the text in a single pass.
+     *
+     * Keys are only recognized at word boundaries, so neither {@code XDBZ-1} nor {@code DBZ-1a} yield {@code DBZ-1}.
+     *
+     * @param text the text to examine; may be null
+     * @param keys the collection the upper-case issue keys are added to in order of appearance; must not be null
+     */
+    public void findAll(CharSequence text, Collection<String> keys) {
+        if (text == null) {
+            return;
+        }
+        final int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (root.children[index(text.charAt(i))] != null && (i == 0 || !isWordCharacter(text.charAt(i - 1)))) {
+                final String key = matchAt(text, i);
+                if (key != null) {
+                    keys.add(key);
+                    i += key.length();
+                    continue;
+                }
+            }
+            i++;
+        }
+    }
+
+    private void add(String project) {
+        if (project.isEmpty() || !Character.isLetter(project.charAt(0))) {
+            throw new IllegalArgumentException("Invalid Jira project key '" + project + "'");
+        }
+        Node node = root;
+        for (int i = 0; i < project.length(); i++) {
+            final int index = index(project.charAt(i));
+            if (index == ALPHABET_SIZE) {
+                throw new IllegalArgumentException("Invalid Jira project key '" + project + "'");
+            }
+            if (node.children[index] == null) {
+                node.children[index] = new Node();
+            }
+            node = node.children[index];
+        }
+        node.project = project.toUpperCase(Locale.ROOT) + "-";
+    }
+
+    private static int index(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        else if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        else if (c >= '0' && c <= '9') {
+            return 26 + c - '0';
+        }
+        else if (c == '_') {
+            return 36;
+        }
+        // Characters not allowed in project keys map to a slot that is always empty
+        return ALPHABET_SIZE;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return index(c) < ALPHABET_SIZE;
+    }
+
+    private static class Node {
+
+        final Node[] children = new Node[ALPHABET_SIZE + 1];
+
+        // The upper-case project key followed by a dash when a project ends at this node
+        String project;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A simple thread-safe, size-bounded cache that evicts the least recently used entry once full.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @author Chris Cranford
+ */
+public class LruCache<K, V> {
+
+    private final Map<K, V> entries;
+
+    /**
+     * Creates the cache.
+     *
+     * @param maxSize the maximum number of entries retained by the cache
+     */
+    public LruCache(int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get the value associated with the key.
+     *
+     * @param key the key, must not be null
+     * @return the value or null if the key is not cached
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Associates the value with the key, evicting the least recently used entry if needed.
+     *
+     * @param key the key, must not be null
+     * @param value the value, must not be null
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * Removes the entry associated with the key.
+     *
+     * @param key the key, must not be null
+     * @return the removed value or null if the key was not cached
+     */
+    public synchronized V remove(K key) {
+        return entries.remove(key);
+    }
+
+    /**
+     * Get the number of cached entries.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+}
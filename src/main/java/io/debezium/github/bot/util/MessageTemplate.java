@@ -0,0 +1,143 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A text template with {@code {name}} placeholders, compiled once into its literal segments and placeholder
+ * positions so that rendering only appends to a caller supplied buffer.
+ *
+ * A template declares at most two placeholders, which keeps rendering free of argument arrays and lookups.
+ *
+ * @author Chris Cranford
+ */
+public final class MessageTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([a-z][a-z-]*)\\}");
+    private static final int MAX_PLACEHOLDERS = 2;
+
+    private final String text;
+    private final String[] literals;
+    private final int[] placeholders;
+    private final int literalLength;
+
+    private MessageTemplate(String text, String[] literals, int[] placeholders) {
+        this.text = text;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles a template.
+     *
+     * @param text the template text; must not be null
+     * @param names the names of the placeholders the template may use, at most two; must not be null
+     * @return the compiled template; never null
+     * @throws IllegalArgumentException if the template uses a placeholder that was not declared
+     */
+    public static MessageTemplate compile(String text, String... names) {
+        if (names.length > MAX_PLACEHOLDERS) {
+            throw new IllegalArgumentException("A template supports at most " + MAX_PLACEHOLDERS + " placeholders");
+        }
+
+        final List<String> literals = new ArrayList<>();
+        final List<Integer> placeholders = new ArrayList<>();
+        final Matcher matcher = PLACEHOLDER.matcher(text);
+        int start = 0;
+        while (matcher.find()) {
+            final int index = Arrays.asList(names).indexOf(matcher.group(1));
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown placeholder " + matcher.group() + " in template '" + text
+                        + "', expected one of " + Arrays.toString(names));
+            }
+            literals.add(text.substring(start, matcher.start()));
+            placeholders.add(index);
+            start = matcher.end();
+        }
+        literals.add(text.substring(start));
+
+        return new MessageTemplate(text, literals.toArray(new String[0]),
+                placeholders.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Get the combined length of the literal text, used to size the buffer a template is rendered into.
+     *
+     * @return the length of the template without its placeholders
+     */
+    public int literalLength() {
+        return literalLength;
+    }
+
+    /**
+     * Get the number of placeholders used by the template, including repeated placeholders.
+     *
+     * @return the number of placeholders
+     */
+    public int placeholderCount() {
+        return placeholders.length;
+    }
+
+    /**
+     * Renders a template without placeholders.
+     *
+     * @param builder the buffer to render into; must not be null
+     */
+    public void appendTo(StringBuilder builder) {
+        appendTo(builder, null, null);
+    }
+
+    /**
+     * Renders a template with one placeholder.
+     *
+     * @param builder the buffer to render into; must not be null
+     * @param first the value of the first placeholder; must not be null
+     */
+    public void appendTo(StringBuilder builder, String first) {
+        appendTo(builder, first, null);
+    }
+
+    /**
+     * Renders a template with two placeholders.
+     *
+     * @param builder the buffer to render into; must not be null
+     * @param first the value of the first placeholder; must not be null
+     * @param second the value of the second placeholder; must not be null
+     */
+    public void appendTo(StringBuilder builder, String first, String second) {
+        builder.append(literals[0]);
+        for (int i = 0; i < placeholders.length; i++) {
+            builder.append(placeholders[i] == 0 ? first : second).append(literals[i + 1]);
+        }
+    }
+
+    /**
+     * Renders a template with one placeholder into a new string.
+     *
+     * @param first the value of the first placeholder; must not be null
+     * @return the rendered text; never null
+     */
+    public String render(String first) {
+        final StringBuilder builder = new StringBuilder(literalLength + placeholders.length * first.length());
+        appendTo(builder, first);
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
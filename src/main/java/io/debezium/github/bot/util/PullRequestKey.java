@@ -0,0 +1,35 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.util;
+
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHRepository;
+
+/**
+ * Identifies a pull request across all repositories the bot is installed on.
+ *
+ * @param repositoryId the repository identifier
+ * @param number the pull request number
+ * @author Chris Cranford
+ */
+public record PullRequestKey(long repositoryId, int number) {
+
+    /**
+     * Creates the key for a pull request.
+     *
+     * @param repository the repository, must not be null
+     * @param pullRequest the pull request, must not be null
+     * @return the key; never null
+     */
+    public static PullRequestKey of(GHRepository repository, GHPullRequest pullRequest) {
+        return new PullRequestKey(repository.getId(), pullRequest.getNumber());
+    }
+
+    @Override
+    public String toString() {
+        return repositoryId + "#" + number;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHRepository;
+
+import io.debezium.github.bot.PullRequestEventJournal.JournalEntry;
+import io.debezium.github.bot.config.DeploymentConfig;
+
+/**
+ * Tests the {@link PullRequestEventJournal}.
+ *
+ * @author Chris Cranford
+ */
+class PullRequestEventJournalTest {
+
+    private static final long INSTALLATION_ID = 42L;
+    private static final long REPOSITORY_ID = 7L;
+
+    @TempDir
+    Path directory;
+
+    private DeploymentConfig deploymentConfig;
+    private PullRequestEventJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        deploymentConfig = mock(DeploymentConfig.class);
+        when(deploymentConfig.isJournalEnabled()).thenReturn(true);
+        when(deploymentConfig.getJournalFile()).thenReturn(directory.resolve("journal").resolve("events.journal").toString());
+        when(deploymentConfig.getJournalCapacity()).thenReturn(1024);
+        when(deploymentConfig.getJournalFlushInterval()).thenReturn(Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) {
+            journal.shutdown();
+        }
+    }
+
+    @Test
+    void shouldReplayUnacknowledgedEventsAfterReopening() {
+        open();
+        final PullRequestEvent first = event(1);
+        final PullRequestEvent second = event(2);
+        final PullRequestEvent third = event(3);
+        journal.accepted(first);
+        journal.accepted(second);
+        journal.accepted(third);
+        journal.completed(second);
+
+        reopen();
+
+        assertThat(journal.getPendingEntries()).containsExactly(
+                new JournalEntry(INSTALLATION_ID, REPOSITORY_ID, 1, first.sequence),
+                new JournalEntry(INSTALLATION_ID, REPOSITORY_ID, 3, third.sequence));
+
+        // Sequences continue after the replayed entries
+        final PullRequestEvent fourth = event(4);
+        journal.accepted(fourth);
+        assertThat(fourth.sequence).isGreaterThan(third.sequence);
+    }
+
+    @Test
+    void shouldKeepOnlyLatestEntryPerPullRequestWhenCompacting() throws Exception {
+        when(deploymentConfig.getJournalCapacity()).thenReturn(4);
+        open();
+
+        PullRequestEvent latestOfFirst = null;
+        PullRequestEvent latestOfSecond = null;
+        for (int i = 0; i < 25; i++) {
+            latestOfFirst = event(1);
+            journal.accepted(latestOfFirst);
+            latestOfSecond = event(2);
+            journal.accepted(latestOfSecond);
+        }
+
+        // The file never grows beyond the configured capacity or twice the pending entries
+        final Path file = Path.of(deploymentConfig.getJournalFile());
+        assertThat(Files.size(file)).isEqualTo(5L * 32);
+
+        reopen();
+
+        assertThat(journal.getPendingEntries()).containsExactly(
+                new JournalEntry(INSTALLATION_ID, REPOSITORY_ID, 1, latestOfFirst.sequence),
+                new JournalEntry(INSTALLATION_ID, REPOSITORY_ID, 2, latestOfSecond.sequence));
+    }
+
+    @Test
+    void shouldKeepNewerPendingEntryWhenOlderEventCompletes() {
+        open();
+        final PullRequestEvent older = event(1);
+        final PullRequestEvent newer = event(1);
+        journal.accepted(older);
+        journal.accepted(newer);
+
+        journal.completed(older);
+
+        final JournalEntry expected = new JournalEntry(INSTALLATION_ID, REPOSITORY_ID, 1, newer.sequence);
+        assertThat(journal.getPendingEntries()).containsExactly(expected);
+
+        // The acknowledgement of the older event must not drop the newer entry when the journal is read again
+        reopen();
+        assertThat(journal.getPendingEntries()).containsExactly(expected);
+
+        journal.completed(newer);
+        assertThat(journal.getPendingEntries()).isEmpty();
+    }
+
+    private void open() {
+        journal = new PullRequestEventJournal();
+        journal.deploymentConfig = deploymentConfig;
+        journal.initialize();
+    }
+
+    private void reopen() {
+        journal.shutdown();
+        open();
+    }
+
+    private static PullRequestEvent event(int number) {
+        final GHRepository repository = mock(GHRepository.class);
+        when(repository.getId()).thenReturn(REPOSITORY_ID);
+        final GHPullRequest pullRequest = mock(GHPullRequest.class);
+        when(pullRequest.getNumber()).thenReturn(number);
+        return new PullRequestEvent(INSTALLATION_ID, null, repository, pullRequest, "synchronize");
+    }
+}
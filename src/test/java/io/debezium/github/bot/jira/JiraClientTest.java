@@ -0,0 +1,135 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.jira;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.debezium.github.bot.config.DeploymentConfig;
+import io.debezium.github.bot.metrics.BotMetrics;
+
+/**
+ * Tests the {@link JiraClient} against a {@link StubJiraServer}.
+ *
+ * @author Chris Cranford
+ */
+class JiraClientTest {
+
+    private StubJiraServer server;
+    private DeploymentConfig deploymentConfig;
+    private JiraClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StubJiraServer();
+        deploymentConfig = mock(DeploymentConfig.class);
+        when(deploymentConfig.isJiraLookupEnabled()).thenReturn(true);
+        when(deploymentConfig.getJiraApiUrl()).thenReturn(server.getApiUrl());
+        when(deploymentConfig.getJiraToken()).thenReturn(Optional.empty());
+        when(deploymentConfig.getJiraLookupTimeout()).thenReturn(Duration.ofSeconds(5));
+        when(deploymentConfig.getJiraCacheSize()).thenReturn(1000);
+        when(deploymentConfig.getJiraCacheTtl()).thenReturn(Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+        server.close();
+    }
+
+    @Test
+    void shouldResolveUncachedKeysInBatchesOfAtMostOneHundred() {
+        final List<String> keys = new ArrayList<>();
+        for (int i = 1; i <= 150; i++) {
+            keys.add("DBZ-" + i);
+        }
+
+        final Map<String, JiraIssue> issues = client().lookup(keys);
+
+        assertThat(server.getSearches()).containsExactly(100, 50);
+        assertThat(issues).hasSize(150);
+        assertThat(issues.get("DBZ-1")).isEqualTo(new JiraIssue("DBZ-1", true, "Open", false));
+        assertThat(issues.get("DBZ-10")).isEqualTo(new JiraIssue("DBZ-10", true, "Closed", true));
+
+        // All keys are cached now, a repeated lookup must not search again
+        assertThat(client.lookup(keys)).isEqualTo(issues);
+        assertThat(server.getSearches()).hasSize(2);
+    }
+
+    @Test
+    void shouldCacheKeysReportedMissingAndLeaveSilentKeysUnresolved() {
+        final String missing = "DBZ-" + StubJiraServer.MISSING;
+        final String hidden = "DBZ-" + StubJiraServer.HIDDEN;
+
+        final Map<String, JiraIssue> issues = client().lookup(List.of("DBZ-1", missing, hidden));
+
+        assertThat(issues).containsOnlyKeys("DBZ-1", missing);
+        assertThat(issues.get(missing)).isEqualTo(JiraIssue.notFound(missing));
+
+        // The key reported missing is cached, the key Jira was silent about is searched again
+        assertThat(client.lookup(List.of(missing, hidden))).containsOnlyKeys(missing);
+        assertThat(server.getSearches()).containsExactly(3, 1);
+    }
+
+    @Test
+    void shouldReturnStaleEntriesWhileRevalidatingInBackground() throws Exception {
+        when(deploymentConfig.getJiraCacheTtl()).thenReturn(Duration.ofMillis(1));
+
+        assertThat(client().lookup(List.of("DBZ-1"))).containsOnlyKeys("DBZ-1");
+        assertThat(server.getSearches()).hasSize(1);
+        Thread.sleep(10);
+
+        // The stale entry is returned without waiting for Jira, which is slower than the assertion deadline
+        server.setLatencyMillis(500);
+        final long start = System.nanoTime();
+        assertThat(client.lookup(List.of("DBZ-1"))).containsOnlyKeys("DBZ-1");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(400));
+
+        final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (server.getSearches().size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(server.getSearches()).containsExactly(1, 1);
+    }
+
+    @Test
+    void shouldFailOpenWhenJiraDoesNotAnswerInTime() {
+        final BotMetrics metrics = mock(BotMetrics.class);
+        when(deploymentConfig.getJiraLookupTimeout()).thenReturn(Duration.ofMillis(200));
+        server.setLatencyMillis(2000);
+
+        assertThat(client(metrics).lookup(List.of("DBZ-1", "DBZ-2"))).isEmpty();
+        verify(metrics).jiraLookup(any(), eq(BotMetrics.OUTCOME_TIMEOUT));
+    }
+
+    private JiraClient client() {
+        return client(mock(BotMetrics.class));
+    }
+
+    private JiraClient client(BotMetrics metrics) {
+        client = new JiraClient();
+        client.deploymentConfig = deploymentConfig;
+        client.metrics = metrics;
+        client.initialize();
+        return client;
+    }
+}
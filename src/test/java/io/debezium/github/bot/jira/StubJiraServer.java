@@ -0,0 +1,138 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.jira;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A stub of the Jira search REST API for tests of the {@link JiraClient}, following the stub of the load test
+ * harness in the benchmarks module.
+ *
+ * Issues are derived from their number: numbers of 900000 and above do not exist and are reported in the
+ * {@code warningMessages} of the response, numbers from 800000 are neither returned nor reported, numbers
+ * divisible by ten are closed and all other issues are open.
+ *
+ * @author Chris Cranford
+ */
+class StubJiraServer implements AutoCloseable {
+
+    static final int MISSING = 900_000;
+    static final int HIDDEN = 800_000;
+
+    private static final Pattern KEY = Pattern.compile("([A-Z][A-Z0-9_]*)-(\\d+)");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<Integer> searches = new CopyOnWriteArrayList<>();
+
+    private volatile long latencyMillis;
+
+    StubJiraServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 16);
+        this.executor = Executors.newFixedThreadPool(4);
+        this.server.setExecutor(executor);
+        this.server.createContext("/rest/api/2/search", this::search);
+        this.server.start();
+    }
+
+    String getApiUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Get the number of keys of every search received, in the order they were received.
+     *
+     * @return the number of keys per search; never null
+     */
+    List<Integer> getSearches() {
+        return searches;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void search(HttpExchange exchange) throws IOException {
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+
+            final String query = exchange.getRequestURI().getRawQuery();
+            final String jql = query != null ? parameter(query, "jql") : "";
+
+            ObjectNode response = mapper.createObjectNode();
+            ArrayNode issues = response.putArray("issues");
+            ArrayNode warnings = response.putArray("warningMessages");
+            Matcher matcher = KEY.matcher(jql);
+            int keys = 0;
+            while (matcher.find()) {
+                keys++;
+                final long number = Long.parseLong(matcher.group(2));
+                if (number >= MISSING) {
+                    warnings.add("An issue with key '" + matcher.group() + "' does not exist for field 'key'.");
+                    continue;
+                }
+                if (number >= HIDDEN) {
+                    continue;
+                }
+                final boolean closed = number % 10 == 0;
+                ObjectNode issue = issues.addObject();
+                issue.put("key", matcher.group());
+                ObjectNode status = issue.putObject("fields").putObject("status");
+                status.put("name", closed ? "Closed" : "Open");
+                status.putObject("statusCategory").put("key", closed ? "done" : "new");
+            }
+            searches.add(keys);
+
+            final byte[] bytes = mapper.writeValueAsBytes(response);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private static String parameter(String query, String name) {
+        for (String pair : query.split("&")) {
+            final int separator = pair.indexOf('=');
+            if (separator > 0 && pair.substring(0, separator).equals(name)) {
+                return URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link CommitMessageRules}.
+ *
+ * @author Chris Cranford
+ */
+class CommitMessageRulesTest {
+
+    private static final IssueKeyMatcher ISSUE_KEY_MATCHER = new IssueKeyMatcher(List.of("DBZ"));
+
+    private static final CommitMessageRules RULES = compile(
+            "subject-max-length=20",
+            "blank-second-line",
+            "issue-key-prefix",
+            "forbid-prefix=fixup!",
+            "subject-pattern=DBZ-\\d+ [A-Z].*",
+            "forbid-pattern=\\.$");
+
+    private static final long SUBJECT_MAX_LENGTH = 1L;
+    private static final long BLANK_SECOND_LINE = 1L << 1;
+    private static final long ISSUE_KEY_PREFIX = 1L << 2;
+    private static final long FORBID_PREFIX = 1L << 3;
+    private static final long SUBJECT_PATTERN = 1L << 4;
+    private static final long FORBID_PATTERN = 1L << 5;
+
+    @Test
+    void shouldPassConformingMessage() {
+        assertThat(RULES.evaluate("DBZ-1 Fix the thing\n\nA longer explanation of the change.")).isZero();
+    }
+
+    @Test
+    void shouldEvaluateSubjectOfCrLfMessage() {
+        assertThat(RULES.evaluate("DBZ-1 Fix the thing\r\n\r\nA longer explanation.")).isZero();
+        assertThat(RULES.evaluate("DBZ-1 Fix the thing.\r\n\r\nBody")).isEqualTo(FORBID_PATTERN);
+        assertThat(RULES.evaluate("DBZ-1 Fix the thing\r\nBody")).isEqualTo(BLANK_SECOND_LINE);
+        assertThat(CommitMessageRules.subject("DBZ-1 Fix the thing\r\nBody")).isEqualTo("DBZ-1 Fix the thing");
+    }
+
+    @Test
+    void shouldTreatWhitespaceOnlySecondLineAsBlank() {
+        assertThat(RULES.evaluate("DBZ-1 Fix the thing\n \t \nBody")).isZero();
+        assertThat(RULES.evaluate("DBZ-1 Fix the thing\n  x\nBody")).isEqualTo(BLANK_SECOND_LINE);
+    }
+
+    @Test
+    void shouldEvaluateOneLineMessage() {
+        assertThat(RULES.evaluate("DBZ-1 Fix the thing")).isZero();
+        assertThat(RULES.evaluate("DBZ-1 Fix the thing\n")).isZero();
+        assertThat(RULES.evaluate("DBZ-1 Fix the thing\r")).isZero();
+        assertThat(RULES.evaluate("DBZ-1 Fix the thing that is too long")).isEqualTo(SUBJECT_MAX_LENGTH);
+        assertThat(RULES.evaluate("")).isEqualTo(ISSUE_KEY_PREFIX | SUBJECT_PATTERN);
+        assertThat(CommitMessageRules.subject("DBZ-1 Fix the thing")).isEqualTo("DBZ-1 Fix the thing");
+    }
+
+    @Test
+    void shouldReportEveryFailedRule() {
+        assertThat(RULES.evaluate("fixup! DBZ-1 Fix the thing.\nBody"))
+                .isEqualTo(SUBJECT_MAX_LENGTH | BLANK_SECOND_LINE | ISSUE_KEY_PREFIX | FORBID_PREFIX | SUBJECT_PATTERN | FORBID_PATTERN);
+    }
+
+    @Test
+    void shouldSupportSixtyFourRules() {
+        final List<String> definitions = new ArrayList<>(Collections.nCopies(63, "blank-second-line"));
+        definitions.add("issue-key-prefix");
+        final CommitMessageRules rules = compile(definitions);
+
+        assertThat(rules.size()).isEqualTo(64);
+        assertThat(rules.evaluate("DBZ-1 Fix")).isZero();
+        assertThat(rules.evaluate("Fix")).isEqualTo(Long.MIN_VALUE);
+        assertThat(rules.evaluate("DBZ-1 Fix\nBody")).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void shouldRejectMoreThanSixtyFourRules() {
+        final List<String> definitions = Collections.nCopies(65, "blank-second-line");
+
+        assertThatThrownBy(() -> compile(definitions))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("64");
+    }
+
+    @Test
+    void shouldRejectInvalidDefinitions() {
+        assertInvalid("unknown-rule", "Unknown commit message rule 'unknown-rule'");
+        assertInvalid("subject-max-length", "requires an argument");
+        assertInvalid("subject-max-length=0", "requires a positive length");
+        assertInvalid("subject-max-length=abc", "requires a positive length");
+        assertInvalid("forbid-prefix=", "requires an argument");
+        assertInvalid("subject-pattern", "requires an argument");
+        assertInvalid("forbid-pattern=(", "has an invalid pattern");
+    }
+
+    @Test
+    void shouldDescribeRulesInDeclarationOrder() {
+        final CommitMessageRules rules = compile(" subject-max-length = 72", "issue-key-prefix");
+
+        assertThat(rules.description(0)).isEqualTo("Commit message subjects should not be longer than 72 characters");
+        assertThat(rules.description(1)).isEqualTo("All commit messages should start with DBZ-XXXX issue key");
+    }
+
+    private static void assertInvalid(String definition, String message) {
+        assertThatThrownBy(() -> compile(definition))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(message);
+    }
+
+    private static CommitMessageRules compile(String... definitions) {
+        return compile(List.of(definitions));
+    }
+
+    private static CommitMessageRules compile(List<String> definitions) {
+        return CommitMessageRules.compile(definitions, ISSUE_KEY_MATCHER, "DBZ-XXXX");
+    }
+}
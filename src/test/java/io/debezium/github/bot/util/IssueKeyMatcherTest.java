@@ -0,0 +1,83 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.github.bot.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link IssueKeyMatcher}.
+ *
+ * @author Chris Cranford
+ */
+class IssueKeyMatcherTest {
+
+    private final IssueKeyMatcher matcher = new IssueKeyMatcher(List.of("DBZ", "DBZUI"));
+
+    @Test
+    void shouldMatchOverlappingProjects() {
+        assertThat(matcher.matchStart("DBZ-1 Fix")).isEqualTo("DBZ-1");
+        assertThat(matcher.matchStart("DBZUI-22 Fix")).isEqualTo("DBZUI-22");
+        assertThat(findAll("DBZUI-1, DBZ-2 and DBZUI-3")).containsExactly("DBZUI-1", "DBZ-2", "DBZUI-3");
+        assertThat(matcher.matchStart("DBZU-1")).isNull();
+    }
+
+    @Test
+    void shouldFoldProjectKeysToUpperCase() {
+        assertThat(matcher.matchStart("dbz-1234 Fix")).isEqualTo("DBZ-1234");
+        assertThat(matcher.matchStart("DbzUi-5")).isEqualTo("DBZUI-5");
+        assertThat(new IssueKeyMatcher(List.of(" dbz ")).matchStart("DBZ-7")).isEqualTo("DBZ-7");
+    }
+
+    @Test
+    void shouldOnlyMatchAtLeadingWordBoundary() {
+        assertThat(findAll("XDBZ-1 _DBZ-2 1DBZ-3")).isEmpty();
+        assertThat(findAll("(DBZ-1) [DBZ-2] /DBZ-3")).containsExactly("DBZ-1", "DBZ-2", "DBZ-3");
+        assertThat(matcher.matchAt("XDBZ-1", 1)).isEqualTo("DBZ-1");
+    }
+
+    @Test
+    void shouldNotMatchKeyFollowedByWordCharacters() {
+        assertThat(matcher.matchStart("DBZ-12a")).isNull();
+        assertThat(matcher.matchStart("DBZ-12_")).isNull();
+        assertThat(findAll("DBZ-12a DBZ-13")).containsExactly("DBZ-13");
+        assertThat(findAll("DBZ-12. DBZ-13-DBZ-14")).containsExactly("DBZ-12", "DBZ-13", "DBZ-14");
+    }
+
+    @Test
+    void shouldNotMatchDashWithoutDigits() {
+        assertThat(matcher.matchStart("DBZ-")).isNull();
+        assertThat(matcher.matchStart("DBZ- 1")).isNull();
+        assertThat(matcher.matchStart("DBZ-x1")).isNull();
+        assertThat(matcher.matchStart("DBZ")).isNull();
+        assertThat(findAll("DBZ-, DBZUI- and DBZ-9")).containsExactly("DBZ-9");
+    }
+
+    @Test
+    void shouldHandleNullText() {
+        assertThat(matcher.matchStart(null)).isNull();
+        assertThat(findAll(null)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectInvalidProjectKeys() {
+        assertThatThrownBy(() -> new IssueKeyMatcher(List.of())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new IssueKeyMatcher(List.of("1DBZ"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new IssueKeyMatcher(List.of("DB-Z"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new IssueKeyMatcher(List.of(" "))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<String> findAll(String text) {
+        final List<String> keys = new ArrayList<>();
+        matcher.findAll(text, keys);
+        return keys;
+    }
+}